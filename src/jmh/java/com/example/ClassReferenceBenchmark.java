@@ -0,0 +1,61 @@
+package com.example;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ClassReferenceBenchmark {
+    private static final int REFERENCES_PER_INVOCATION = 1024;
+    private static final String[] TYPES = { "Field Type", "Parameter Type", "Return Type", "Object Creation", "Annotation" };
+
+    private final String[] classNames = new String[256];
+    private final Path[] files = new Path[64];
+    private ClassReferenceAnalyzer analyzer;
+
+    @Setup(Level.Trial)
+    public void createNames() {
+        for (int i = 0; i < classNames.length; i++) {
+            classNames[i] = i % 2 == 0 ? "com.example.fixtures.Type" + i : "Type" + i;
+        }
+        for (int i = 0; i < files.length; i++) {
+            files[i] = Paths.get("src/main/java/com/example/fixtures/File" + i + ".java");
+        }
+    }
+
+    // A fresh analyzer per iteration keeps the stores from growing without bound
+    @Setup(Level.Iteration)
+    public void createAnalyzer() {
+        analyzer = new ClassReferenceAnalyzer();
+        for (int i = 0; i < classNames.length; i += 4) {
+            analyzer.addClassDefinition(classNames[i], files[i % files.length], i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REFERENCES_PER_INVOCATION)
+    public ClassReferenceAnalyzer addClassReference() {
+        for (int i = 0; i < REFERENCES_PER_INVOCATION; i++) {
+            analyzer.addClassReference(classNames[i % classNames.length], files[i % files.length], i, TYPES[i % TYPES.length]);
+        }
+        return analyzer;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.resolution.declarations.ResolvedConstructorDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class IdentifierBenchmark {
+    private ResolvedMethodDeclaration reflectionMethod;
+    private ResolvedMethodDeclaration sourceMethod;
+    private ResolvedConstructorDeclaration reflectionConstructor;
+    private ResolvedConstructorDeclaration sourceConstructor;
+
+    @Setup
+    public void setup() {
+        CompilationUnit cu = new JavaParser().parse(Fixtures.read(Fixtures.ORDER_SERVICE)).getResult().get();
+        JavaParserFacade symbolSolver = JavaParserFacade.get(new ReflectionTypeSolver());
+        // String.format(String, Object...) comes from the JDK, Order.getCustomer() from source
+        reflectionMethod = symbolSolver.solve(findCall(cu, "format")).getCorrespondingDeclaration();
+        sourceMethod = symbolSolver.solve(findCall(cu, "getCustomer")).getCorrespondingDeclaration();
+        reflectionConstructor = symbolSolver.solve(findCreation(cu, "ArrayList")).getCorrespondingDeclaration();
+        sourceConstructor = symbolSolver.solve(findCreation(cu, "Order")).getCorrespondingDeclaration();
+    }
+
+    private static MethodCallExpr findCall(CompilationUnit cu, String name) {
+        return cu.findFirst(MethodCallExpr.class, n -> n.getNameAsString().equals(name)).get();
+    }
+
+    private static ObjectCreationExpr findCreation(CompilationUnit cu, String typeName) {
+        return cu.findFirst(ObjectCreationExpr.class, n -> n.getType().getNameAsString().equals(typeName)).get();
+    }
+
+    @Benchmark
+    public String formatReflectionMethod() {
+        return MethodIdentifiers.formatMethodIdentifier(reflectionMethod);
+    }
+
+    @Benchmark
+    public String formatSourceMethod() {
+        return MethodIdentifiers.formatMethodIdentifier(sourceMethod);
+    }
+
+    @Benchmark
+    public String formatReflectionConstructor() {
+        return MethodIdentifiers.formatConstructorIdentifier(reflectionConstructor);
+    }
+
+    @Benchmark
+    public String formatSourceConstructor() {
+        return MethodIdentifiers.formatConstructorIdentifier(sourceConstructor);
+    }
+
+    @Benchmark
+    public String simplifyTypeName() {
+        return MethodIdentifiers.simplifyTypeName("java.util.Map<java.lang.String, com.example.fixtures.OrderService.Order>");
+    }
+}
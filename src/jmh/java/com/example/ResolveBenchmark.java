@@ -0,0 +1,61 @@
+package com.example;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+// Resolves one call of each typical shape in the fixture. The facade memoizes expression types
+// between invocations, as it does within a real analysis of a file.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ResolveBenchmark {
+    @Param({ "orders.put", "LocalDate.now", "order.getAmount().toPlainString", "String.format", "report.append" })
+    public String callShape;
+
+    private JavaParserFacade symbolSolver;
+    private MethodCallExpr call;
+    private ResolutionCache resolutionCache;
+
+    @Setup
+    public void setup() {
+        CompilationUnit cu = new JavaParser().parse(Fixtures.read(Fixtures.ORDER_SERVICE)).getResult().get();
+        symbolSolver = JavaParserFacade.get(new ReflectionTypeSolver());
+        call = cu.findAll(MethodCallExpr.class).stream()
+            .filter(n -> n.toString().startsWith(callShape))
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("No call of shape " + callShape + " in fixture"));
+        resolutionCache = new ResolutionCache(ResolutionCache.DEFAULT_MAX_ENTRIES);
+    }
+
+    @Benchmark
+    public SymbolReference<ResolvedMethodDeclaration> solve() {
+        return symbolSolver.solve(call);
+    }
+
+    @Benchmark
+    public ResolutionCache.ResolvedTarget resolveCached() {
+        return resolutionCache.resolve(call, symbolSolver);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Compares the result sinks on the same synthetic references. MethodReferenceAnalyzer keeps its
+// references in static fields, which is fine here because every benchmark runs in its own fork.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WriterBenchmark {
+    private static final int REFERENCES_PER_FILE = 100;
+
+    @Param({ "100000" })
+    public int referenceCount;
+
+    private final List<FileReferences> files = new ArrayList<>();
+    private MethodReferenceAnalyzer methodAnalyzer;
+    private ClassReferenceAnalyzer classAnalyzer;
+    private Path outputDir;
+
+    @Setup
+    public void setup() throws IOException {
+        outputDir = Files.createTempDirectory("writer-benchmark");
+        methodAnalyzer = new MethodReferenceAnalyzer();
+        classAnalyzer = new ClassReferenceAnalyzer();
+        for (int file = 0; file * REFERENCES_PER_FILE < referenceCount; file++) {
+            FileReferences references = new FileReferences(Paths.get("src/main/java/com/example/fixtures/File" + file + ".java"));
+            references.addClassDefinition("com.example.fixtures.File" + file, 3);
+            for (int i = 0; i < REFERENCES_PER_FILE / 2; i++) {
+                references.addMethodReference("com.example.fixtures.File" + (i % 50) + "::run(String, int)", 10 + i, "Method Call");
+                references.addClassReference(i % 3 == 0 ? "String" : "com.example.fixtures.File" + (i % 50), 10 + i, "Field Type");
+            }
+            references.applyTo(methodAnalyzer, classAnalyzer);
+            files.add(references);
+        }
+    }
+
+    @TearDown
+    public void deleteOutput() throws IOException {
+        try (Stream<Path> paths = Files.walk(outputDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void writeMethodResults() {
+        methodAnalyzer.writeResultsToFile(outputDir.resolve("method-references.txt").toString());
+    }
+
+    @Benchmark
+    public void writeClassResults() {
+        classAnalyzer.writeResultsToFile(outputDir.resolve("class-references.txt").toString());
+    }
+
+    @Benchmark
+    public void streamResults() throws IOException {
+        try (StreamingResultWriter writer = new StreamingResultWriter(
+                outputDir.resolve("method-references.txt"), outputDir.resolve("class-references.txt"))) {
+            files.forEach(writer::write);
+        }
+    }
+
+    @Benchmark
+    public void writeIndex() throws IOException {
+        ReferenceIndexWriter index = new ReferenceIndexWriter();
+        methodAnalyzer.addToIndex(index);
+        classAnalyzer.addToIndex(index);
+        index.write(outputDir.resolve("references.idx"));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.fixtures;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+public class OrderService {
+    private final Map<String, Order> orders = new HashMap<>();
+    private final List<String> auditLog = new ArrayList<>();
+    private final StringBuilder report = new StringBuilder();
+
+    public OrderService() {
+        this(Collections.emptyList());
+    }
+
+    public OrderService(List<Order> initialOrders) {
+        for (Order order : initialOrders) {
+            orders.put(order.getId(), order);
+        }
+    }
+
+    public Order create(String id, String customer, BigDecimal amount) {
+        Order order = new Order(id, customer, amount, LocalDate.now());
+        orders.put(id, order);
+        auditLog.add("created " + id);
+        return order;
+    }
+
+    public Optional<Order> find(String id) {
+        return Optional.ofNullable(orders.get(id));
+    }
+
+    public BigDecimal total(String customer) {
+        return orders.values().stream()
+            .filter(order -> order.getCustomer().equals(customer))
+            .map(Order::getAmount)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    public List<String> customers() {
+        return orders.values().stream()
+            .map(Order::getCustomer)
+            .distinct()
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+    public String summarize() {
+        report.setLength(0);
+        for (Order order : orders.values()) {
+            report.append(order.getId()).append(": ").append(order.getAmount().toPlainString()).append('\n');
+        }
+        return report.toString().trim();
+    }
+
+    public boolean cancel(String id) {
+        Order order = orders.remove(id);
+        if (order == null) {
+            return false;
+        }
+        auditLog.add(String.format("cancelled %s for %s", id, order.getCustomer()));
+        return true;
+    }
+
+    public int auditSize() {
+        return Math.max(0, auditLog.size());
+    }
+
+    public static class Order {
+        private final String id;
+        private final String customer;
+        private final BigDecimal amount;
+        private final LocalDate date;
+
+        public Order(String id, String customer, BigDecimal amount, LocalDate date) {
+            this.id = id;
+            this.customer = customer.trim();
+            this.amount = amount.setScale(2, BigDecimal.ROUND_HALF_UP);
+            this.date = date;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getCustomer() {
+            return customer;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public boolean isOlderThan(LocalDate other) {
+            return date.isBefore(other);
+        }
+    }
+}
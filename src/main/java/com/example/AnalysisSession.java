@@ -0,0 +1,110 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Project setup that stays valid while the project poms are unchanged: the reactor modules and
+// their source directories, the resolved dependency jars and their class index, and one jar type
+// solver per worker slot. The jar solvers open jars lazily and keep them open, so a session reused
+// across analyses (as the analyzer daemon does) does not pay for loading the dependencies again.
+// The jars of all modules share one index, so a module can resolve classes from a jar that only
+// another module depends on; with dependencyManagement the versions agree across modules anyway.
+public class AnalysisSession {
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisSession.class);
+
+    private final String projectPath;
+    private final MavenReactor reactor;
+    private final Map<Path, FileTime> pomModified;
+    private final List<String> dependencyJars;
+    private final ClassJarIndex classIndex;
+    private final List<LazyJarTypeSolver> jarSolvers = new ArrayList<>();
+
+    private AnalysisSession(String projectPath, MavenReactor reactor, Map<Path, FileTime> pomModified, List<String> dependencyJars,
+            ClassJarIndex classIndex) {
+        this.projectPath = projectPath;
+        this.reactor = reactor;
+        this.pomModified = pomModified;
+        this.dependencyJars = dependencyJars;
+        this.classIndex = classIndex;
+    }
+
+    // Returns null when no module has a source directory
+    public static AnalysisSession open(String projectPath) throws IOException, XmlPullParserException {
+        MavenReactor reactor = MavenReactor.load(Paths.get(projectPath));
+        Map<Path, FileTime> pomModified = new LinkedHashMap<>();
+        for (MavenReactor.Module module : reactor.getModules()) {
+            pomModified.put(module.getPomFile(), Files.getLastModifiedTime(module.getPomFile()));
+        }
+        if (reactor.getModules().stream().allMatch(module -> module.getSourcePath() == null)) {
+            logger.error("Source directory not found in project: {}", projectPath);
+            return null;
+        }
+        if (reactor.size() > 1) {
+            logger.info("Found {} reactor modules in {}", reactor.size(), projectPath);
+        }
+
+        // One resolver for all modules, so parents and BOMs they share are read once
+        MavenClasspath classpath = new MavenClasspath(MavenClasspath.defaultLocalRepository());
+        Set<String> moduleKeys = reactor.getModuleKeys();
+        Set<String> jars = new LinkedHashSet<>();
+        for (MavenReactor.Module module : reactor.getModules()) {
+            if (module.getSourcePath() != null) {
+                jars.addAll(classpath.resolveJars(module.getDirectory(), module.model, moduleKeys));
+            }
+        }
+        List<String> dependencyJars = new ArrayList<>(jars);
+        ClassJarIndex classIndex = ClassJarIndex.load(IncrementalAnalysis.manifestPath(projectPath, "class-index"), dependencyJars);
+        return new AnalysisSession(projectPath, reactor, pomModified, dependencyJars, classIndex);
+    }
+
+    // False once a pom changed, since the modules, source directories or dependencies may have changed with it
+    public boolean isUpToDate() {
+        try {
+            for (Map.Entry<Path, FileTime> entry : pomModified.entrySet()) {
+                if (!Files.getLastModifiedTime(entry.getKey()).equals(entry.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public String getProjectPath() {
+        return projectPath;
+    }
+
+    public MavenReactor getReactor() {
+        return reactor;
+    }
+
+    public List<String> getDependencyJars() {
+        return dependencyJars;
+    }
+
+    public ClassJarIndex getClassIndex() {
+        return classIndex;
+    }
+
+    // The jar solver of a worker slot; slots must not be used by two workers at the same time
+    public LazyJarTypeSolver getJarSolver(int slot) {
+        while (jarSolvers.size() <= slot) {
+            jarSolvers.add(new LazyJarTypeSolver(classIndex));
+        }
+        return jarSolvers.get(slot);
+    }
+}
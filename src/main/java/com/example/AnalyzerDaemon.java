@@ -0,0 +1,208 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+
+// Keeps the JVM, the JIT and the opened dependency jars warm between analyses. Listens on a loopback
+// port and handles one request at a time; each analysis can still use several threads.
+//
+// A request is a command followed by its arguments, one per line, and ends with an empty line:
+//   analyze             project path, then the usual options, e.g. --threads 4
+//   ping
+//   shutdown
+// The response is "OK" followed by key=value lines, or "ERROR <message>", and also ends with an
+// empty line. Results are written to target/reference-analyzer in the analyzed project. Relative
+// paths in options are resolved against the daemon's working directory.
+public class AnalyzerDaemon {
+    private static final Logger logger = LoggerFactory.getLogger(AnalyzerDaemon.class);
+    static final int DEFAULT_PORT = 7391;
+    // Projects whose sessions are kept; the least recently analyzed one is dropped first
+    private static final int MAX_SESSIONS = 4;
+    // Requests are handled one at a time, so a client that connects and sends nothing, or trickles
+    // its request, must not hold the daemon. The timeout covers the whole request.
+    static final int DEFAULT_REQUEST_TIMEOUT_MILLIS = 10_000;
+    // Requests are a few short lines; anything longer is not a client of this protocol
+    static final int MAX_REQUEST_CHARS = 64 * 1024;
+    private static final AnalyzerMetrics metrics = AnalyzerMetrics.getShared();
+    private static final ResolutionDiagnostics diagnostics = ResolutionDiagnostics.getShared();
+
+    private final Map<String, AnalysisSession> sessions = new LinkedHashMap<String, AnalysisSession>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, AnalysisSession> eldest) {
+            return size() > MAX_SESSIONS;
+        }
+    };
+    private volatile boolean running = true;
+    int requestTimeoutMillis = DEFAULT_REQUEST_TIMEOUT_MILLIS;
+
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        for (int i = 0; i < args.length; i++) {
+            if ("--port".equals(args[i]) && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else {
+                logger.error("Usage: AnalyzerDaemon [--port <port>]");
+                return;
+            }
+        }
+
+        AnalyzerMetrics.registerMBean();
+        try (ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            logger.info("Analyzer daemon listening on {}", serverSocket.getLocalSocketAddress());
+            new AnalyzerDaemon().serve(serverSocket);
+        } catch (IOException e) {
+            logger.error("Analyzer daemon failed", e);
+        }
+        logger.info("Analyzer daemon stopped");
+    }
+
+    void serve(ServerSocket serverSocket) {
+        while (running) {
+            try (Socket socket = serverSocket.accept()) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+                for (String line : handle(readRequest(socket, in))) {
+                    out.println(line);
+                }
+                out.println();
+                out.flush();
+            } catch (SocketTimeoutException e) {
+                logger.warn("Closed daemon connection that sent no complete request within {} ms", requestTimeoutMillis);
+            } catch (IOException e) {
+                logger.warn("Error handling daemon request", e);
+            }
+        }
+    }
+
+    // Reads up to the empty line that ends the request. Only bounds the wait for the request; the
+    // analysis itself may take longer. The read timeout is narrowed to what is left of the request's
+    // deadline before every read, so a client sending a byte now and then still runs out of time.
+    private List<String> readRequest(Socket socket, BufferedReader in) throws IOException {
+        long deadline = System.nanoTime() + requestTimeoutMillis * 1_000_000L;
+        List<String> request = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        for (int length = 0; ; length++) {
+            long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMillis <= 0) {
+                throw new SocketTimeoutException("Request deadline exceeded");
+            }
+            if (length >= MAX_REQUEST_CHARS) {
+                throw new IOException("Request exceeds " + MAX_REQUEST_CHARS + " characters");
+            }
+            socket.setSoTimeout((int) remainingMillis);
+            int c = in.read();
+            if (c == -1) {
+                if (line.length() > 0) {
+                    request.add(line.toString());
+                }
+                return request;
+            }
+            if (c != '\n') {
+                line.append((char) c);
+                continue;
+            }
+            if (line.length() > 0 && line.charAt(line.length() - 1) == '\r') {
+                line.setLength(line.length() - 1);
+            }
+            if (line.length() == 0) {
+                return request;
+            }
+            request.add(line.toString());
+            line.setLength(0);
+        }
+    }
+
+    List<String> handle(List<String> request) {
+        if (request.isEmpty()) {
+            return error("Empty request");
+        }
+        switch (request.get(0)) {
+            case "analyze":
+                return analyze(request.subList(1, request.size()));
+            case "ping":
+                return Arrays.asList("OK", "sessions=" + sessions.size());
+            case "shutdown":
+                running = false;
+                return Arrays.asList("OK");
+            default:
+                return error("Unknown command: " + request.get(0));
+        }
+    }
+
+    private List<String> analyze(List<String> arguments) {
+        if (arguments.isEmpty()) {
+            return error("Missing project path");
+        }
+        long start = System.nanoTime();
+        try {
+            String projectPath = arguments.get(0);
+            AnalyzerOptions options = AnalyzerOptions.parse(arguments.toArray(new String[0]), 1);
+            AnalysisSession session = session(projectPath);
+            if (session == null) {
+                return error("Source directory not found for project: " + projectPath);
+            }
+
+            metrics.reset();
+            diagnostics.reset();
+            Path outputDir = Files.createDirectories(Paths.get(projectPath, "target", "reference-analyzer"));
+            ReferenceAnalyzerMain.Results results = ReferenceAnalyzerMain.analyzeAndWriteResults(session, options, outputDir);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            logger.info("Analyzed {} in {} ms", projectPath, millis);
+            return Arrays.asList("OK",
+                "methodReferences=" + results.methodReferenceCount,
+                "classReferences=" + results.classReferenceCount,
+                "methodOutput=" + results.methodOutput.toAbsolutePath(),
+                "classOutput=" + results.classOutput.toAbsolutePath(),
+                "millis=" + millis);
+        } catch (Exception e) {
+            logger.error("Error analyzing project", e);
+            return error(e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+        } finally {
+            // JavaParser's static registry keeps the facades of this request, and through them its
+            // type solvers and their parsed sources, until it is cleared
+            JavaParserFacade.clearInstances();
+            MethodReferenceAnalyzer.clearResults();
+        }
+    }
+
+    // Reuses the project's session until its pom changes
+    private AnalysisSession session(String projectPath) throws Exception {
+        String key = Paths.get(projectPath).toAbsolutePath().normalize().toString();
+        AnalysisSession session = sessions.get(key);
+        if (session == null || !session.isUpToDate()) {
+            logger.info("Loading project configuration for {}", key);
+            session = AnalysisSession.open(projectPath);
+            if (session == null) {
+                sessions.remove(key);
+                return null;
+            }
+            sessions.put(key, session);
+        }
+        return session;
+    }
+
+    private static List<String> error(String message) {
+        return Arrays.asList("ERROR " + message.replace('\n', ' ').replace('\r', ' '));
+    }
+}
@@ -0,0 +1,205 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Phase timers, per-file latency histogram and resolution counters for one analysis run. All
+// recording methods are thread-safe and allocation-free on the hot path. Phase times are summed
+// across threads, so with several workers they can exceed the wall-clock time of the run.
+public class AnalyzerMetrics implements AnalyzerMetricsMXBean {
+    private static final Logger logger = LoggerFactory.getLogger(AnalyzerMetrics.class);
+    private static final AnalyzerMetrics shared = new AnalyzerMetrics();
+    static final String OBJECT_NAME = "com.example:type=AnalyzerMetrics";
+    // Bucket i counts files that took less than 2^i microseconds (the last bucket is open-ended)
+    private static final int LATENCY_BUCKETS = 32;
+
+    public enum Phase {
+        DELOMBOK,
+        WALK,
+        PARSE,
+        DEFINITIONS,
+        RESOLUTION,
+        NEO4J_WRITE
+    }
+
+    private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+    private final LongAdder[] phaseCounts = new LongAdder[Phase.values().length];
+    private final LongAdder[] fileLatencyBuckets = new LongAdder[LATENCY_BUCKETS];
+    private final LongAdder fileCount = new LongAdder();
+    private final LongAdder fileNanos = new LongAdder();
+    private final Map<String, LongAdder> resolvedByKind = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> unresolvedByKind = new ConcurrentHashMap<>();
+
+    AnalyzerMetrics() {
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] = new LongAdder();
+            phaseCounts[i] = new LongAdder();
+        }
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            fileLatencyBuckets[i] = new LongAdder();
+        }
+    }
+
+    public static AnalyzerMetrics getShared() {
+        return shared;
+    }
+
+    // Adds the time elapsed since startNanos, a System.nanoTime() value, to the phase
+    public void recordPhase(Phase phase, long startNanos) {
+        phaseNanos[phase.ordinal()].add(System.nanoTime() - startNanos);
+        phaseCounts[phase.ordinal()].increment();
+    }
+
+    public void recordFile(long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        long micros = nanos / 1_000;
+        int bucket = Math.min(LATENCY_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        fileLatencyBuckets[bucket].increment();
+        fileNanos.add(nanos);
+        fileCount.increment();
+    }
+
+    // kind is the reference kind, e.g. "Method Call" or "Constructor Call". Resolved and unresolved
+    // references must use the same kind; static and instance calls are only told apart in the output.
+    public void recordResolution(String kind, boolean resolved) {
+        (resolved ? resolvedByKind : unresolvedByKind).computeIfAbsent(kind, k -> new LongAdder()).increment();
+    }
+
+    public void reset() {
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i].reset();
+            phaseCounts[i].reset();
+        }
+        for (LongAdder bucket : fileLatencyBuckets) {
+            bucket.reset();
+        }
+        fileCount.reset();
+        fileNanos.reset();
+        resolvedByKind.clear();
+        unresolvedByKind.clear();
+    }
+
+    // Registers the shared instance with the platform MBean server; repeated calls are ignored
+    public static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(shared, name);
+            }
+        } catch (JMException e) {
+            logger.warn("Could not register analyzer metrics MBean", e);
+        }
+    }
+
+    @Override
+    public Map<String, Long> getPhaseMillis() {
+        Map<String, Long> millis = new TreeMap<>();
+        for (Phase phase : Phase.values()) {
+            millis.put(phase.name(), phaseNanos[phase.ordinal()].sum() / 1_000_000);
+        }
+        return millis;
+    }
+
+    @Override
+    public long getFilesAnalyzed() {
+        return fileCount.sum();
+    }
+
+    @Override
+    public double getMeanFileMillis() {
+        long files = fileCount.sum();
+        return files == 0 ? 0 : fileNanos.sum() / 1e6 / files;
+    }
+
+    // Upper bound of the histogram bucket that contains the given percentile, in milliseconds
+    @Override
+    public double getFileMillisPercentile(double percentile) {
+        long files = fileCount.sum();
+        if (files == 0) {
+            return 0;
+        }
+        long threshold = (long) Math.ceil(files * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            seen += fileLatencyBuckets[i].sum();
+            if (seen >= threshold) {
+                return (1L << i) / 1_000.0;
+            }
+        }
+        return (1L << (LATENCY_BUCKETS - 1)) / 1_000.0;
+    }
+
+    @Override
+    public Map<String, Long> getResolvedByKind() {
+        return sums(resolvedByKind);
+    }
+
+    @Override
+    public Map<String, Long> getUnresolvedByKind() {
+        return sums(unresolvedByKind);
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+        Map<String, Long> sums = new TreeMap<>();
+        counters.forEach((kind, counter) -> sums.put(kind, counter.sum()));
+        return sums;
+    }
+
+    public void writeJsonReport(Path reportFile) {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(reportFile))) {
+            writer.println("{");
+            writer.println("  \"phases\": {");
+            Phase[] phases = Phase.values();
+            for (int i = 0; i < phases.length; i++) {
+                int ordinal = phases[i].ordinal();
+                writer.printf(Locale.ROOT, "    \"%s\": {\"totalMillis\": %d, \"count\": %d}%s%n", phases[i].name().toLowerCase(Locale.ROOT),
+                    phaseNanos[ordinal].sum() / 1_000_000, phaseCounts[ordinal].sum(), i < phases.length - 1 ? "," : "");
+            }
+            writer.println("  },");
+            writer.println("  \"files\": {");
+            writer.printf(Locale.ROOT, "    \"count\": %d,%n", getFilesAnalyzed());
+            writer.printf(Locale.ROOT, "    \"meanMillis\": %.3f,%n", getMeanFileMillis());
+            writer.printf(Locale.ROOT, "    \"p50Millis\": %.3f,%n", getFileMillisPercentile(50));
+            writer.printf(Locale.ROOT, "    \"p90Millis\": %.3f,%n", getFileMillisPercentile(90));
+            writer.printf(Locale.ROOT, "    \"p99Millis\": %.3f,%n", getFileMillisPercentile(99));
+            writer.print("    \"histogram\": [");
+            for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                writer.print((i > 0 ? ", " : "") + fileLatencyBuckets[i].sum());
+            }
+            writer.println("]");
+            writer.println("  },");
+            writer.println("  \"resolved\": " + toJson(getResolvedByKind()) + ",");
+            writer.println("  \"unresolved\": " + toJson(getUnresolvedByKind()));
+            writer.println("}");
+        } catch (IOException e) {
+            logger.error("Error writing metrics report: " + reportFile, e);
+        }
+    }
+
+    private static String toJson(Map<String, Long> counts) {
+        StringBuilder json = new StringBuilder("{");
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            if (json.length() > 1) {
+                json.append(", ");
+            }
+            json.append('"').append(entry.getKey().replace("\\", "\\\\").replace("\"", "\\\"")).append("\": ").append(entry.getValue());
+        }
+        return json.append('}').toString();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example;
+
+import java.util.Map;
+
+// JMX view of AnalyzerMetrics, registered as com.example:type=AnalyzerMetrics
+public interface AnalyzerMetricsMXBean {
+    Map<String, Long> getPhaseMillis();
+
+    long getFilesAnalyzed();
+
+    double getMeanFileMillis();
+
+    double getFileMillisPercentile(double percentile);
+
+    Map<String, Long> getResolvedByKind();
+
+    Map<String, Long> getUnresolvedByKind();
+}
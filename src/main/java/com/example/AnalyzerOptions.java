@@ -0,0 +1,162 @@
+package com.example;
+
+public class AnalyzerOptions {
+    int neo4jBatchSize = Neo4jReferenceWriter.DEFAULT_BATCH_SIZE;
+    int neo4jTransactions = AsyncNeo4jWritePipeline.DEFAULT_MAX_TRANSACTIONS;
+    int neo4jPendingBatches = AsyncNeo4jWritePipeline.DEFAULT_MAX_PENDING_BATCHES;
+    int threads = 1;
+    boolean incremental;
+    String indexFile;
+    String neo4jImportDir;
+    String jsonLinesFile;
+    String neo4jUri;
+    boolean streamOutput;
+    MemoryProfile memoryProfile = MemoryProfile.DEFAULT;
+    boolean offHeap;
+    String offHeapDir;
+
+    // Parses "--name value" style options starting at the given index of the argument array
+    public static AnalyzerOptions parse(String[] args, int firstOption) {
+        AnalyzerOptions options = new AnalyzerOptions();
+        for (int i = firstOption; i < args.length; i++) {
+            String option = args[i];
+            switch (option) {
+                case "--batch-size":
+                    options.neo4jBatchSize = parseInt(option, requireValue(args, ++i, option));
+                    break;
+                case "--neo4j-transactions":
+                    options.neo4jTransactions = parseInt(option, requireValue(args, ++i, option));
+                    if (options.neo4jTransactions < 1) {
+                        throw new IllegalArgumentException("--neo4j-transactions must be at least 1");
+                    }
+                    break;
+                case "--neo4j-pending-batches":
+                    options.neo4jPendingBatches = parseInt(option, requireValue(args, ++i, option));
+                    break;
+                case "--threads":
+                    options.threads = parseInt(option, requireValue(args, ++i, option));
+                    if (options.threads < 1) {
+                        throw new IllegalArgumentException("--threads must be at least 1");
+                    }
+                    break;
+                case "--incremental":
+                    options.incremental = true;
+                    break;
+                case "--stream-output":
+                    options.streamOutput = true;
+                    break;
+                case "--low-memory":
+                    options.memoryProfile = MemoryProfile.LOW_MEMORY;
+                    break;
+                case "--off-heap":
+                    options.offHeap = true;
+                    break;
+                case "--off-heap-dir":
+                    options.offHeap = true;
+                    options.offHeapDir = requireValue(args, ++i, option);
+                    break;
+                case "--index":
+                    options.indexFile = requireValue(args, ++i, option);
+                    break;
+                case "--neo4j-import":
+                    options.neo4jImportDir = requireValue(args, ++i, option);
+                    break;
+                case "--jsonl":
+                    options.jsonLinesFile = requireValue(args, ++i, option);
+                    break;
+                case "--neo4j":
+                    options.neo4jUri = requireValue(args, ++i, option);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+        if (options.neo4jPendingBatches < options.neo4jTransactions) {
+            throw new IllegalArgumentException("--neo4j-pending-batches must be at least --neo4j-transactions");
+        }
+        // The index and the import files are built from the references collected in the analyzers, which streaming skips
+        if (options.streamOutput && options.indexFile != null) {
+            throw new IllegalArgumentException("--index cannot be combined with --stream-output");
+        }
+        if (options.streamOutput && options.neo4jImportDir != null) {
+            throw new IllegalArgumentException("--neo4j-import cannot be combined with --stream-output");
+        }
+        return options;
+    }
+
+    private static String requireValue(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option: " + option);
+        }
+        return args[index];
+    }
+
+    private static int parseInt(String option, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for option " + option + ": " + value);
+        }
+    }
+
+    public int getNeo4jBatchSize() {
+        return neo4jBatchSize;
+    }
+
+    // Batches written to Neo4j at the same time
+    public int getNeo4jTransactions() {
+        return neo4jTransactions;
+    }
+
+    // Batches that may wait for or be in a Neo4j write before analysis blocks
+    public int getNeo4jPendingBatches() {
+        return neo4jPendingBatches;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    // Write results as files are analyzed instead of collecting them in the analyzers first
+    public boolean isStreamOutput() {
+        return streamOutput;
+    }
+
+    public MemoryProfile getMemoryProfile() {
+        return memoryProfile;
+    }
+
+    // Keep the collected reference records outside the Java heap
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    // Directory for the memory-mapped reference record files, or null to use direct memory
+    public String getOffHeapDir() {
+        return offHeapDir;
+    }
+
+    // Path of the binary reference index to write, or null when no index was requested
+    public String getIndexFile() {
+        return indexFile;
+    }
+
+    // Directory to write neo4j-admin import files to, or null when no export was requested
+    public String getNeo4jImportDir() {
+        return neo4jImportDir;
+    }
+
+    // File to write every reference to as JSON Lines, or null
+    public String getJsonLinesFile() {
+        return jsonLinesFile;
+    }
+
+    // Neo4j database to write method references to while analyzing, or null
+    public String getNeo4jUri() {
+        return neo4jUri;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example;
+
+import java.nio.file.Path;
+
+// Collects the references in the in-memory stores of the analyzers, for the grouped result files,
+// the reference index and the reference graphs. The class analyzer may be null when only method
+// references are extracted.
+public class AnalyzerReferenceSink implements ReferenceSink {
+    private final MethodReferenceAnalyzer methodAnalyzer;
+    private final ClassReferenceAnalyzer classAnalyzer;
+
+    public AnalyzerReferenceSink(MethodReferenceAnalyzer methodAnalyzer, ClassReferenceAnalyzer classAnalyzer) {
+        this.methodAnalyzer = methodAnalyzer;
+        this.classAnalyzer = classAnalyzer;
+    }
+
+    @Override
+    public void methodReference(String reference, Path filePath, int lineNumber, String type, String source) {
+        methodAnalyzer.addMethodReference(reference, filePath, lineNumber, type, source);
+    }
+
+    @Override
+    public void constructorDefinition(String className, Path filePath, int lineNumber) {
+        methodAnalyzer.addConstructorDefinition(className, filePath, lineNumber);
+    }
+
+    @Override
+    public void classDefinition(String qualifiedName, Path filePath, int lineNumber) {
+        if (classAnalyzer != null) {
+            classAnalyzer.addClassDefinition(qualifiedName, filePath, lineNumber);
+        }
+    }
+
+    @Override
+    public void classReference(String className, Path filePath, int lineNumber, String type) {
+        if (classAnalyzer != null) {
+            classAnalyzer.addClassReference(className, filePath, lineNumber, type);
+        }
+    }
+}
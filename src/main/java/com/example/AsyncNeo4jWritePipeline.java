@@ -0,0 +1,140 @@
+package com.example;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.async.AsyncSession;
+import org.neo4j.driver.async.ResultCursor;
+import org.neo4j.driver.summary.ResultSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Writes batches of rows with the driver's async API so that analysis threads only wait for Neo4j
+// when the database falls behind. At most maxPendingBatches batches are queued or being written;
+// submit blocks beyond that, which slows analysis down to the write rate instead of buffering the
+// whole project. At most maxTransactions batches are written at the same time, each in its own
+// session. Batches may commit in any order, so the query must not depend on ordering (MERGE).
+public class AsyncNeo4jWritePipeline implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncNeo4jWritePipeline.class);
+    public static final int DEFAULT_MAX_TRANSACTIONS = 4;
+    public static final int DEFAULT_MAX_PENDING_BATCHES = 16;
+
+    private final Driver driver;
+    private final String query;
+    private final int maxPendingBatches;
+    private final Semaphore pendingBatches;
+    private final Semaphore transactions;
+    private final Queue<List<Map<String, Object>>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong writtenRows = new AtomicLong();
+    private final AtomicLong failedRows = new AtomicLong();
+    private final AnalyzerMetrics metrics = AnalyzerMetrics.getShared();
+
+    // The query receives each batch as the $rows parameter
+    public AsyncNeo4jWritePipeline(Driver driver, String query, int maxTransactions, int maxPendingBatches) {
+        if (maxTransactions < 1 || maxPendingBatches < maxTransactions) {
+            throw new IllegalArgumentException("Need at least one transaction and as many pending batches as transactions");
+        }
+        this.driver = driver;
+        this.query = query;
+        this.maxPendingBatches = maxPendingBatches;
+        this.pendingBatches = new Semaphore(maxPendingBatches);
+        this.transactions = new Semaphore(maxTransactions);
+    }
+
+    // Blocks while the window of pending batches is full
+    public void submit(List<Map<String, Object>> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        pendingBatches.acquireUninterruptibly();
+        queue.add(rows);
+        startWrites();
+    }
+
+    // Starts a write for queued batches while transaction slots are free. A completing write calls
+    // this again, so a batch queued while all slots were taken is picked up by whichever finishes first.
+    private void startWrites() {
+        while (!queue.isEmpty() && transactions.tryAcquire()) {
+            List<Map<String, Object>> rows = queue.poll();
+            if (rows == null) {
+                transactions.release();
+                continue;
+            }
+            write(rows);
+        }
+    }
+
+    private void write(List<Map<String, Object>> rows) {
+        long start = System.nanoTime();
+        AsyncSession session;
+        try {
+            session = driver.session(AsyncSession.class);
+        } catch (RuntimeException e) {
+            failedRows.addAndGet(rows.size());
+            logger.error("Could not open a Neo4j session for {} method references", rows.size(), e);
+            transactions.release();
+            pendingBatches.release();
+            return;
+        }
+        CompletionStage<ResultSummary> write;
+        try {
+            write = session.executeWriteAsync(tx -> tx.runAsync(query, Map.of("rows", rows)).thenCompose(ResultCursor::consumeAsync));
+        } catch (RuntimeException e) {
+            // Thrown before the write was started, e.g. by a closed driver; no completion will release the permits
+            failedRows.addAndGet(rows.size());
+            logger.error("Could not start writing {} method references to Neo4j", rows.size(), e);
+            transactions.release();
+            pendingBatches.release();
+            try {
+                session.closeAsync();
+            } catch (RuntimeException closeError) {
+                logger.debug("Could not close the Neo4j session", closeError);
+            }
+            return;
+        }
+        write
+            .whenComplete((summary, error) -> {
+                if (error != null) {
+                    failedRows.addAndGet(rows.size());
+                    logger.error("Error writing {} method references to Neo4j: {}", rows.size(), error.getMessage(), error);
+                } else {
+                    writtenRows.addAndGet(rows.size());
+                    logger.debug("Wrote {} method references to Neo4j", rows.size());
+                }
+                metrics.recordPhase(AnalyzerMetrics.Phase.NEO4J_WRITE, start);
+            })
+            .handle((summary, error) -> null)
+            .thenCompose(ignored -> session.closeAsync())
+            .whenComplete((ignored, error) -> {
+                transactions.release();
+                pendingBatches.release();
+                startWrites();
+            });
+    }
+
+    // Waits until every submitted batch has been written or has failed
+    public void awaitCompletion() {
+        pendingBatches.acquireUninterruptibly(maxPendingBatches);
+        pendingBatches.release(maxPendingBatches);
+    }
+
+    public long getWrittenRows() {
+        return writtenRows.get();
+    }
+
+    public long getFailedRows() {
+        return failedRows.get();
+    }
+
+    @Override
+    public void close() {
+        awaitCompletion();
+        logger.info("Neo4j write pipeline wrote {} method references, {} failed", writtenRows.get(), failedRows.get());
+    }
+}
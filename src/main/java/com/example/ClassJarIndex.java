@@ -0,0 +1,165 @@
+package com.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Maps fully qualified class names to the dependency jar that contains them, so jars can be opened
+// only when one of their classes is looked up. Class names use dots for nested classes, as the
+// type solvers do. The class lists are persisted per jar and a jar is only rescanned when its size
+// or modification time changed. When several jars contain a class, the first one on the classpath wins.
+public class ClassJarIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ClassJarIndex.class);
+    private static final int MAGIC = 0x434A4958;
+    private static final int VERSION = 1;
+
+    private final Map<String, Path> jarsByClass = new HashMap<>();
+    private final int jarCount;
+
+    private ClassJarIndex(List<JarClasses> jars) {
+        for (JarClasses jar : jars) {
+            Path path = Paths.get(jar.path);
+            for (String className : jar.classNames) {
+                jarsByClass.putIfAbsent(className, path);
+            }
+        }
+        jarCount = jars.size();
+    }
+
+    public static ClassJarIndex load(Path indexFile, List<String> jars) {
+        Map<String, JarClasses> stored = read(indexFile);
+        List<JarClasses> current = new ArrayList<>();
+        int scanned = 0;
+        for (String jar : jars) {
+            try {
+                Path path = Paths.get(jar);
+                long size = Files.size(path);
+                long modified = Files.getLastModifiedTime(path).toMillis();
+                JarClasses classes = stored.get(jar);
+                if (classes == null || classes.size != size || classes.modified != modified) {
+                    classes = new JarClasses(jar, size, modified, scan(path));
+                    scanned++;
+                }
+                current.add(classes);
+            } catch (IOException e) {
+                logger.warn("Could not index dependency jar: {}", jar, e);
+            }
+        }
+        if (scanned > 0 || current.size() != stored.size()) {
+            write(indexFile, current);
+        }
+        logger.info("Class index covers {} jars, {} rescanned", current.size(), scanned);
+        return new ClassJarIndex(current);
+    }
+
+    // Returns null when no indexed jar contains the class
+    public Path findJar(String className) {
+        return jarsByClass.get(className);
+    }
+
+    public int getClassCount() {
+        return jarsByClass.size();
+    }
+
+    public int getJarCount() {
+        return jarCount;
+    }
+
+    static List<String> scan(Path jar) throws IOException {
+        List<String> classNames = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                // Multi-release variants share the name of the base class
+                if (!name.endsWith(".class") || name.startsWith("META-INF/") || name.endsWith("module-info.class")
+                        || name.endsWith("package-info.class")) {
+                    continue;
+                }
+                classNames.add(name.substring(0, name.length() - ".class".length()).replace('/', '.').replace('$', '.'));
+            }
+        }
+        return classNames;
+    }
+
+    private static Map<String, JarClasses> read(Path indexFile) {
+        Map<String, JarClasses> jars = new LinkedHashMap<>();
+        if (!Files.exists(indexFile)) {
+            return jars;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                logger.info("Class index {} has an unknown format, rebuilding it", indexFile);
+                return jars;
+            }
+            int jarCount = in.readInt();
+            for (int i = 0; i < jarCount; i++) {
+                String path = in.readUTF();
+                long size = in.readLong();
+                long modified = in.readLong();
+                int classCount = in.readInt();
+                List<String> classNames = new ArrayList<>(classCount);
+                for (int j = 0; j < classCount; j++) {
+                    classNames.add(in.readUTF());
+                }
+                jars.put(path, new JarClasses(path, size, modified, classNames));
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read class index {}, rebuilding it", indexFile, e);
+            jars.clear();
+        }
+        return jars;
+    }
+
+    private static void write(Path indexFile, List<JarClasses> jars) {
+        try {
+            Files.createDirectories(indexFile.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(jars.size());
+                for (JarClasses jar : jars) {
+                    out.writeUTF(jar.path);
+                    out.writeLong(jar.size);
+                    out.writeLong(jar.modified);
+                    out.writeInt(jar.classNames.size());
+                    for (String className : jar.classNames) {
+                        out.writeUTF(className);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not write class index {}", indexFile, e);
+        }
+    }
+
+    private static class JarClasses {
+        final String path;
+        final long size;
+        final long modified;
+        final List<String> classNames;
+
+        JarClasses(String path, long size, long modified, List<String> classNames) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+            this.classNames = classNames;
+        }
+    }
+}
@@ -3,11 +3,12 @@ package com.example;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,28 +33,105 @@ import com.github.javaparser.resolution.declarations.ResolvedAnnotationDeclarati
 public class ClassReferenceAnalyzer {
     private static final Logger logger = LoggerFactory.getLogger(ClassReferenceAnalyzer.class);
     private final Map<String, ClassInfo> classDefinitions = new HashMap<>();
-    private final List<ClassReferenceInfo> classReferences = new ArrayList<>();
+    // References are kept column-wise with interned strings; ClassReferenceInfo objects are only
+    // created on demand for callers that ask for them. Class references have no source member; their
+    // definition is looked up by name when a reference is read, so it is found whatever the order in
+    // which the files were analyzed.
+    private final SymbolTable symbols = new SymbolTable();
+    private final ReferenceTable classReferences;
+    private final List<ClassInfo> definitionList = new ArrayList<>();
+    private final Map<String, Integer> definitionPositions = new HashMap<>();
+
+    public ClassReferenceAnalyzer() {
+        this(new HeapReferenceTable());
+    }
+
+    public ClassReferenceAnalyzer(ReferenceTable classReferences) {
+        this.classReferences = classReferences;
+    }
 
     public void addClassDefinition(String qualifiedName, Path filePath, int lineNumber) {
-        classDefinitions.put(qualifiedName, new ClassInfo(qualifiedName, filePath, lineNumber, false));
+        ClassInfo classDef = new ClassInfo(qualifiedName, filePath, lineNumber, false);
+        classDefinitions.put(qualifiedName, classDef);
+        definitionPositions.put(qualifiedName, definitionList.size());
+        definitionList.add(classDef);
     }
 
     public void addClassReference(String className, Path filePath, int lineNumber, String type) {
-        ClassInfo classDef = classDefinitions.get(className);
-        if (classDef == null) {
-            classDef = new ClassInfo(className, null, -1, true);
-        }
-        classReferences.add(new ClassReferenceInfo(className, filePath, lineNumber, classDef, type));
+        classReferences.add(symbols.intern(className), symbols.intern(filePath.toString()), lineNumber, symbols.intern(type));
     }
 
+    public int getClassReferenceCount() {
+        return classReferences.size();
+    }
+
+    // Read-only view over the stored references; each element is created when it is accessed
     public List<ClassReferenceInfo> getClassReferences() {
-        return classReferences;
+        return new AbstractList<ClassReferenceInfo>() {
+            @Override
+            public ClassReferenceInfo get(int index) {
+                return getClassReference(index);
+            }
+
+            @Override
+            public int size() {
+                return classReferences.size();
+            }
+        };
+    }
+
+    private ClassReferenceInfo getClassReference(int record) {
+        String className = symbols.get(classReferences.getTarget(record));
+        int definitionId = definitionPosition(record);
+        ClassInfo classDef = definitionId >= 0 ? definitionList.get(definitionId) : new ClassInfo(className, null, -1, true);
+        return new ClassReferenceInfo(className, Paths.get(symbols.get(classReferences.getFile(record))),
+            classReferences.getLine(record), classDef, symbols.get(classReferences.getKind(record)));
+    }
+
+    // Position in definitionList of the definition of the record's target, or -1 for external classes
+    private int definitionPosition(int record) {
+        Integer position = definitionPositions.get(symbols.get(classReferences.getTarget(record)));
+        return position != null ? position : -1;
     }
 
     public Map<String, ClassInfo> getClassDefinitions() {
         return classDefinitions;
     }
 
+    // Dependency graph between classes. References are recorded per file, so every class defined in
+    // the referencing file counts as a source; targets are the qualified name of the definition when
+    // one is known and the name as written otherwise
+    public ReferenceGraph buildReferenceGraph() {
+        Map<String, List<String>> classesByFile = new HashMap<>();
+        for (ClassInfo classDef : definitionList) {
+            classesByFile.computeIfAbsent(classDef.filePath.toString(), file -> new ArrayList<>()).add(classDef.qualifiedName);
+        }
+        ReferenceGraph.Builder graph = new ReferenceGraph.Builder();
+        for (int record = 0; record < classReferences.size(); record++) {
+            List<String> sources = classesByFile.get(symbols.get(classReferences.getFile(record)));
+            if (sources == null) {
+                continue;
+            }
+            int definitionId = definitionPosition(record);
+            String target = definitionId >= 0 ? definitionList.get(definitionId).qualifiedName : symbols.get(classReferences.getTarget(record));
+            for (String source : sources) {
+                if (!source.equals(target)) {
+                    graph.addEdge(source, target);
+                }
+            }
+        }
+        return graph.build();
+    }
+
+    // Targets use the same qualified name that writeResultsToFile prints
+    public void addToIndex(ReferenceIndexWriter index) {
+        for (int record = 0; record < classReferences.size(); record++) {
+            String reference = symbols.get(classReferences.getTarget(record));
+            index.add(qualifiedReference(reference), symbols.get(classReferences.getFile(record)),
+                classReferences.getLine(record), symbols.get(classReferences.getKind(record)));
+        }
+    }
+
     public void writeResultsToFile(String outputPath) {
         try (PrintWriter writer = new PrintWriter(outputPath)) {
             writer.println("Class Reference Analysis Results");
@@ -67,24 +145,30 @@ public class ClassReferenceAnalyzer {
             writer.println("Total class definitions found: " + classDefinitions.size());
             writer.println();
 
-            // Group references by type
-            Map<String, List<ClassReferenceInfo>> referencesByType = classReferences.stream()
-                .collect(Collectors.groupingBy(ref -> ref.type));
+            // Group references by type, in the order HashMap iterates the type names
+            Map<String, Integer> countsByType = new HashMap<>();
+            for (int record = 0; record < classReferences.size(); record++) {
+                countsByType.merge(symbols.get(classReferences.getKind(record)), 1, Integer::sum);
+            }
 
             // Write detailed results by type
             writer.println("Detailed Results by Type");
             writer.println("======================");
             writer.println();
 
-            for (Map.Entry<String, List<ClassReferenceInfo>> entry : referencesByType.entrySet()) {
+            for (Map.Entry<String, Integer> entry : countsByType.entrySet()) {
                 String type = entry.getKey();
-                List<ClassReferenceInfo> refs = entry.getValue();
+                int kind = symbols.find(type);
 
-                writer.println(type + " References (" + refs.size() + "):");
+                writer.println(type + " References (" + entry.getValue() + "):");
                 writer.println("-".repeat(type.length() + 20));
                 writer.println();
 
-                for (ClassReferenceInfo ref : refs) {
+                for (int record = 0; record < classReferences.size(); record++) {
+                    if (classReferences.getKind(record) != kind) {
+                        continue;
+                    }
+                    ClassReferenceInfo ref = getClassReference(record);
                     writer.println(formatClassReference(ref.type, ref.classDefinition != null ? ref.classDefinition.qualifiedName : ref.reference, ref.filePath.toString(), ref.classDefinition != null ? ref.classDefinition.toString() : "Not found in project"));
                     writer.println();
                 }
@@ -107,14 +191,23 @@ public class ClassReferenceAnalyzer {
         }
     }
 
-    private String formatClassReference(String type, String reference, String location, String definition) {
+    static String formatClassReference(String type, String reference, String location, String definition) {
         return String.format("Type: %s\nReference: %s\nLocation: %s\nDefinition: %s\n", 
             type, 
-            reference.contains(".") ? reference : "java.lang." + reference, // Add java.lang. prefix if no package specified
+            qualifiedReference(reference),
             location,
             definition);
     }
 
+    // Names are recorded qualified where anything resolved them. Type variables, default-package
+    // types and names nothing resolved are kept as written, unless the name is a java.lang type.
+    static String qualifiedReference(String reference) {
+        if (!reference.contains(".") && TypeNameTable.isJdkType("java.lang." + reference)) {
+            return "java.lang." + reference;
+        }
+        return reference;
+    }
+
     public static class ClassInfo {
         final String qualifiedName;
         final Path filePath;
@@ -0,0 +1,144 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded map for the caches that every worker thread reads on every call. Reads do not lock; they
+// only mark the entry as used. Writes lock one segment, and a full segment evicts a single entry
+// with the clock (second chance) algorithm: the hand moves over the segment's entries, clearing the
+// mark of those used since it last passed them, and replaces the first one that was not used.
+public class ClockCache<V> {
+    // Small caches get a single segment so that the bound is exact
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_ENTRIES = 64;
+
+    private final Segment<V>[] segments;
+    private volatile int segmentCapacity;
+    private final LongAdder evictions = new LongAdder();
+
+    private static class Entry<V> {
+        final String key;
+        final V value;
+        volatile boolean used;
+
+        Entry(String key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static class Segment<V> {
+        final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+        // Guarded by the segment
+        final List<Entry<V>> clock = new ArrayList<>();
+        int hand;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ClockCache(int maxEntries) {
+        int segmentCount = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maxEntries / MIN_SEGMENT_ENTRIES)));
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>();
+        }
+        setMaxEntries(maxEntries);
+    }
+
+    // Applies to the next writes; segments above the new bound shrink when they are written to
+    public void setMaxEntries(int maxEntries) {
+        this.segmentCapacity = Math.max(1, maxEntries / segments.length);
+    }
+
+    public V get(String key) {
+        Entry<V> entry = segmentFor(key).entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        // Only written when it changes, so that hot entries do not bounce between cores
+        if (!entry.used) {
+            entry.used = true;
+        }
+        return entry.value;
+    }
+
+    // A key that is already present keeps its value; the caches only store values that are the
+    // same for every worker computing them
+    public void put(String key, V value) {
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment) {
+            if (segment.entries.containsKey(key)) {
+                return;
+            }
+            List<Entry<V>> clock = segment.clock;
+            // Only after the bound was lowered: the last entry fills the slot of the evicted one
+            while (clock.size() > segmentCapacity) {
+                int victim = advanceHand(segment);
+                segment.entries.remove(clock.get(victim).key);
+                evictions.increment();
+                Entry<V> last = clock.remove(clock.size() - 1);
+                if (victim < clock.size()) {
+                    clock.set(victim, last);
+                }
+            }
+            Entry<V> entry = new Entry<>(key, value);
+            if (clock.size() < segmentCapacity) {
+                clock.add(entry);
+            } else {
+                int victim = advanceHand(segment);
+                segment.entries.remove(clock.get(victim).key);
+                evictions.increment();
+                clock.set(victim, entry);
+                segment.hand = victim + 1;
+            }
+            segment.entries.put(key, entry);
+        }
+    }
+
+    public void clear() {
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                segment.entries.clear();
+                segment.clock.clear();
+                segment.hand = 0;
+            }
+        }
+        evictions.reset();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            size += segment.entries.size();
+        }
+        return size;
+    }
+
+    // Number of entries removed to make room for others, not counting clear()
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    // Index of the first entry from the hand on that was not used since the hand last passed it
+    private static <V> int advanceHand(Segment<V> segment) {
+        List<Entry<V>> clock = segment.clock;
+        while (true) {
+            if (segment.hand >= clock.size()) {
+                segment.hand = 0;
+            }
+            Entry<V> entry = clock.get(segment.hand);
+            if (!entry.used) {
+                return segment.hand;
+            }
+            entry.used = false;
+            segment.hand++;
+        }
+    }
+
+    private Segment<V> segmentFor(String key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+}
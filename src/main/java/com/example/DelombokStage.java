@@ -0,0 +1,338 @@
+package com.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Delomboks the project sources into target/delombok. Runs Lombok in-process through its shadow
+// class loader and only re-processes source files whose content hash changed since the previous
+// run; the hashes are kept next to the analysis manifests. Most Lombok transformations are local to
+// a file, so unchanged files keep their previous output. val, var, @Delegate and @ExtensionMethod
+// expand according to other types, including types the file never names (val takes the return type
+// of a call), so unchanged files using them are processed again whenever any file changed. The
+// lombok.config files under the source directory and in its parent directories are hashed as well;
+// a change to any of them may change the output of every file, so it forces a full delombok.
+public class DelombokStage {
+    private static final Logger logger = LoggerFactory.getLogger(DelombokStage.class);
+    private static final int MAGIC = 0x52444C4B;
+    private static final int VERSION = 2;
+    private static final String LOMBOK_CONFIG = "lombok.config";
+    // Used when the project declares Lombok without a version we can resolve, e.g. from a parent pom
+    private static final String DEFAULT_LOMBOK_VERSION = "1.18.30";
+    // Lombok's class loaders by jar, so that repeated runs in one JVM load Lombok only once
+    private static final Map<Path, ClassLoader> shadowClassLoaders = new ConcurrentHashMap<>();
+    // Imports or qualified uses of the Lombok features whose expansion depends on types declared in
+    // other files; wildcard imports count as well, since they may bring in any of them
+    private static final Pattern CROSS_FILE_FEATURE = Pattern.compile(
+        "\\blombok\\.(?:experimental\\.)?(?:(?:val|var|Delegate|ExtensionMethod)\\b|\\*)");
+
+    private final String projectPath;
+    private final Path sourcePath;
+    private final Path outputPath;
+    private final Path lombokJar;
+    private final String lombokVersion;
+    private final Runner runner;
+
+    // Delomboks the given files, relative to the source directory, into the output directory
+    interface Runner {
+        void delombok(List<String> relativePaths) throws IOException;
+    }
+
+    private DelombokStage(String projectPath, Path sourcePath, Path lombokJar, String lombokVersion) {
+        this.projectPath = projectPath;
+        this.sourcePath = sourcePath;
+        this.outputPath = outputPath(projectPath);
+        this.lombokJar = lombokJar;
+        this.lombokVersion = lombokVersion;
+        this.runner = this::delombokWithLombok;
+    }
+
+    DelombokStage(String projectPath, Path sourcePath, String lombokVersion, Runner runner) {
+        this.projectPath = projectPath;
+        this.sourcePath = sourcePath;
+        this.outputPath = outputPath(projectPath);
+        this.lombokJar = null;
+        this.lombokVersion = lombokVersion;
+        this.runner = runner;
+    }
+
+    static Path outputPath(String projectPath) {
+        return Paths.get(projectPath, "target", "delombok");
+    }
+
+    // Returns the directory to analyze: the delombok output, or the sources when the project does not use Lombok
+    public static Path run(String projectPath, Model model, Path sourcePath) throws IOException {
+        String version = findLombokVersion(model);
+        if (version == null) {
+            logger.info("Project does not depend on Lombok, analyzing {} directly", sourcePath);
+            return sourcePath;
+        }
+        Path lombokJar = Paths.get(System.getProperty("user.home"), ".m2", "repository", "org", "projectlombok", "lombok",
+            version, "lombok-" + version + ".jar");
+        if (!Files.exists(lombokJar)) {
+            throw new IllegalStateException("Lombok jar not found at: " + lombokJar);
+        }
+        DelombokStage stage = new DelombokStage(projectPath, sourcePath, lombokJar, version);
+        stage.delombok();
+        return stage.outputPath;
+    }
+
+    static String findLombokVersion(Model model) {
+        List<Dependency> dependencies = new ArrayList<>(model.getDependencies());
+        if (model.getDependencyManagement() != null) {
+            dependencies.addAll(model.getDependencyManagement().getDependencies());
+        }
+        boolean declared = false;
+        for (Dependency dependency : dependencies) {
+            if ("org.projectlombok".equals(dependency.getGroupId()) && "lombok".equals(dependency.getArtifactId())) {
+                declared = true;
+                String version = interpolate(dependency.getVersion(), model);
+                if (version != null && !version.contains("${")) {
+                    return version;
+                }
+            }
+        }
+        if (declared) {
+            logger.warn("Could not determine the Lombok version from the pom, using {}", DEFAULT_LOMBOK_VERSION);
+            return DEFAULT_LOMBOK_VERSION;
+        }
+        return null;
+    }
+
+    // Resolves a single ${property} reference against the pom properties
+    private static String interpolate(String value, Model model) {
+        if (value != null && value.startsWith("${") && value.endsWith("}")) {
+            String property = value.substring(2, value.length() - 1);
+            return "project.version".equals(property) ? model.getVersion() : model.getProperties().getProperty(property, value);
+        }
+        return value;
+    }
+
+    // Returns the files that were delomboked, relative to the source directory
+    List<String> delombok() throws IOException {
+        Path hashFile = IncrementalAnalysis.manifestPath(projectPath, "delombok");
+        Map<String, String> previousConfigHashes = new TreeMap<>();
+        Map<String, String> previousHashes = loadHashes(hashFile, previousConfigHashes);
+        Map<String, String> currentHashes = new TreeMap<>();
+        List<String> changed = new ArrayList<>();
+        List<String> crossFile = new ArrayList<>();
+
+        List<Path> sourceFiles;
+        try (Stream<Path> paths = Files.walk(sourcePath)) {
+            sourceFiles = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        List<Path> javaFiles = sourceFiles.stream()
+            .filter(path -> path.toString().endsWith(".java"))
+            .collect(Collectors.toList());
+        Map<String, String> currentConfigHashes = hashLombokConfigs(sourceFiles);
+        boolean configChanged = !currentConfigHashes.equals(previousConfigHashes);
+        if (configChanged && !previousHashes.isEmpty()) {
+            logger.info("A lombok.config file changed, delomboking every file");
+        }
+
+        for (Path path : javaFiles) {
+            String relativePath = sourcePath.relativize(path).toString();
+            byte[] content = Files.readAllBytes(path);
+            String hash = FileSignature.sha256(content);
+            currentHashes.put(relativePath, hash);
+            if (configChanged || !hash.equals(previousHashes.get(relativePath)) || !Files.exists(outputPath.resolve(relativePath))) {
+                changed.add(relativePath);
+            } else if (CROSS_FILE_FEATURE.matcher(new String(content, StandardCharsets.UTF_8)).find()) {
+                crossFile.add(relativePath);
+            }
+        }
+        boolean removed = false;
+        for (String relativePath : previousHashes.keySet()) {
+            if (!currentHashes.containsKey(relativePath)) {
+                Files.deleteIfExists(outputPath.resolve(relativePath));
+                removed = true;
+            }
+        }
+
+        List<String> files = new ArrayList<>(changed);
+        if (!changed.isEmpty() || removed) {
+            files.addAll(crossFile);
+        }
+        if (files.isEmpty()) {
+            logger.info("Delombok output in {} is up to date", outputPath);
+        } else {
+            logger.info("Running delombok {} on {} of {} files ({} unchanged files use types of other files)",
+                lombokVersion, files.size(), javaFiles.size(), files.size() - changed.size());
+            long start = System.nanoTime();
+            runner.delombok(files);
+            logger.info("Delombok completed successfully in {} ms", (System.nanoTime() - start) / 1_000_000);
+        }
+        saveHashes(hashFile, currentHashes, currentConfigHashes);
+        return files;
+    }
+
+    // The lombok.config files that apply to the sources, by absolute path: those among the source
+    // files and those of the directories above the source directory, which Lombok reads as well
+    private Map<String, String> hashLombokConfigs(List<Path> sourceFiles) throws IOException {
+        List<Path> configs = sourceFiles.stream()
+            .filter(path -> path.getFileName().toString().equals(LOMBOK_CONFIG))
+            .collect(Collectors.toList());
+        Path directory = sourcePath.toAbsolutePath().normalize().getParent();
+        for (; directory != null; directory = directory.getParent()) {
+            Path config = directory.resolve(LOMBOK_CONFIG);
+            if (Files.isRegularFile(config)) {
+                configs.add(config);
+            }
+        }
+        Map<String, String> hashes = new TreeMap<>();
+        for (Path config : configs) {
+            hashes.put(config.toAbsolutePath().normalize().toString(), FileSignature.sha256(Files.readAllBytes(config)));
+        }
+        return hashes;
+    }
+
+    private void delombokWithLombok(List<String> relativePaths) throws IOException {
+        try {
+            delombokInProcess(relativePaths);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            logger.warn("Could not run delombok in-process, falling back to a separate JVM", e);
+            delombokExternal();
+        }
+    }
+
+    private void delombokInProcess(List<String> relativePaths) throws IOException, ReflectiveOperationException {
+        ClassLoader lombokLoader = shadowClassLoader(lombokJar);
+        Class<?> delombokClass = lombokLoader.loadClass("lombok.delombok.Delombok");
+        Object delombok = delombokClass.getConstructor().newInstance();
+        delombokClass.getMethod("setNoCopy", boolean.class).invoke(delombok, true);
+        delombokClass.getMethod("setOutput", File.class).invoke(delombok, outputPath.toFile());
+        // Lets Lombok resolve the other project types when only some files are processed
+        delombokClass.getMethod("setSourcepath", String.class).invoke(delombok, sourcePath.toString());
+        Method addFile = delombokClass.getMethod("addFile", File.class, String.class);
+
+        Thread thread = Thread.currentThread();
+        ClassLoader contextLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(lombokLoader);
+        try {
+            for (String relativePath : relativePaths) {
+                addFile.invoke(delombok, sourcePath.toFile(), relativePath);
+            }
+            if (!(Boolean) delombokClass.getMethod("delombok").invoke(delombok)) {
+                throw new IllegalStateException("Delombok reported errors");
+            }
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("Delombok failed", e.getCause());
+        } finally {
+            thread.setContextClassLoader(contextLoader);
+        }
+    }
+
+    // Lombok keeps its implementation classes behind a shadow class loader created by lombok.launch.Main
+    private static ClassLoader shadowClassLoader(Path lombokJar) throws IOException, ReflectiveOperationException {
+        ClassLoader loader = shadowClassLoaders.get(lombokJar);
+        if (loader == null) {
+            URLClassLoader launcher = new URLClassLoader(new URL[] { lombokJar.toUri().toURL() }, DelombokStage.class.getClassLoader());
+            Method getShadowClassLoader = Class.forName("lombok.launch.Main", true, launcher).getDeclaredMethod("getShadowClassLoader");
+            getShadowClassLoader.setAccessible(true);
+            loader = (ClassLoader) getShadowClassLoader.invoke(null);
+            shadowClassLoaders.put(lombokJar, loader);
+        }
+        return loader;
+    }
+
+    // The command line cannot keep the directory layout for individual files, so this processes everything
+    private void delombokExternal() throws IOException {
+        ProcessBuilder processBuilder = new ProcessBuilder(
+            "java", "-jar", lombokJar.toString(), "delombok",
+            "-n",
+            "-d", outputPath.toString(),
+            sourcePath.toString()
+        );
+        processBuilder.redirectErrorStream(true);
+        Process process = processBuilder.start();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                logger.info("Delombok output: {}", line);
+            }
+        }
+        try {
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new IllegalStateException("Delombok process failed with exit code: " + exitCode);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Delombok process was interrupted", e);
+        }
+    }
+
+    // Returns the source file hashes and adds the lombok.config hashes to configHashes. Hashes from a
+    // run with a different Lombok version are discarded, forcing a full delombok.
+    private Map<String, String> loadHashes(Path hashFile, Map<String, String> configHashes) {
+        Map<String, String> hashes = new TreeMap<>();
+        if (Files.exists(hashFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(hashFile)))) {
+                if (in.readInt() == MAGIC && in.readInt() == VERSION && in.readUTF().equals(lombokVersion)) {
+                    readHashes(in, hashes);
+                    readHashes(in, configHashes);
+                }
+            } catch (IOException e) {
+                logger.warn("Could not read delombok hashes {}, running a full delombok", hashFile, e);
+                hashes.clear();
+                configHashes.clear();
+            }
+        }
+        return hashes;
+    }
+
+    private void saveHashes(Path hashFile, Map<String, String> hashes, Map<String, String> configHashes) throws IOException {
+        Files.createDirectories(hashFile.getParent());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(hashFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(lombokVersion);
+            writeHashes(out, hashes);
+            writeHashes(out, configHashes);
+        }
+    }
+
+    private static void readHashes(DataInputStream in, Map<String, String> hashes) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            hashes.put(in.readUTF(), in.readUTF());
+        }
+    }
+
+    private static void writeHashes(DataOutputStream out, Map<String, String> hashes) throws IOException {
+        out.writeInt(hashes.size());
+        for (Map.Entry<String, String> entry : hashes.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeUTF(entry.getValue());
+        }
+    }
+}
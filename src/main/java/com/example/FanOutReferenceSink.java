@@ -0,0 +1,70 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+// Passes every event to each of the sinks in turn, so one traversal feeds all outputs without
+// buffering the project
+public class FanOutReferenceSink implements ReferenceSink {
+    private final ReferenceSink[] sinks;
+
+    public FanOutReferenceSink(List<ReferenceSink> sinks) {
+        this.sinks = sinks.toArray(new ReferenceSink[0]);
+    }
+
+    @Override
+    public void beginFile(Path filePath, boolean reused) {
+        for (ReferenceSink sink : sinks) {
+            sink.beginFile(filePath, reused);
+        }
+    }
+
+    @Override
+    public void methodReference(String reference, Path filePath, int lineNumber, String type, String source) {
+        for (ReferenceSink sink : sinks) {
+            sink.methodReference(reference, filePath, lineNumber, type, source);
+        }
+    }
+
+    @Override
+    public void constructorDefinition(String className, Path filePath, int lineNumber) {
+        for (ReferenceSink sink : sinks) {
+            sink.constructorDefinition(className, filePath, lineNumber);
+        }
+    }
+
+    @Override
+    public void classDefinition(String qualifiedName, Path filePath, int lineNumber) {
+        for (ReferenceSink sink : sinks) {
+            sink.classDefinition(qualifiedName, filePath, lineNumber);
+        }
+    }
+
+    @Override
+    public void classReference(String className, Path filePath, int lineNumber, String type) {
+        for (ReferenceSink sink : sinks) {
+            sink.classReference(className, filePath, lineNumber, type);
+        }
+    }
+
+    // Closes every sink even when one fails; the first failure is rethrown
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (ReferenceSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
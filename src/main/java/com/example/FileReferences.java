@@ -0,0 +1,156 @@
+package com.example;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// References extracted from a single source file, buffered so that files analyzed on worker
+// threads can be merged into the shared analyzers in a deterministic order
+public class FileReferences {
+    enum Kind {
+        METHOD_CALL,
+        CONSTRUCTOR_CALL,
+        METHOD_REFERENCE,
+        CONSTRUCTOR_DEFINITION,
+        CLASS_DEFINITION,
+        CLASS_REFERENCE
+    }
+
+    static class Entry {
+        final Kind kind;
+        final String name;
+        final int lineNumber;
+        final String type;
+        // Identifier of the method, constructor or initializer containing a call, null when unknown
+        final String source;
+
+        Entry(Kind kind, String name, int lineNumber, String type) {
+            this(kind, name, lineNumber, type, null);
+        }
+
+        Entry(Kind kind, String name, int lineNumber, String type, String source) {
+            this.kind = kind;
+            this.name = name;
+            this.lineNumber = lineNumber;
+            this.type = type;
+            this.source = source;
+        }
+    }
+
+    private final Path filePath;
+    private final List<Entry> entries = new ArrayList<>();
+    private FileSignature signature;
+    private boolean reused;
+    private boolean failed;
+
+    public FileReferences(Path filePath) {
+        this.filePath = filePath;
+    }
+
+    public Path getFilePath() {
+        return filePath;
+    }
+
+    List<Entry> getEntries() {
+        return entries;
+    }
+
+    void addEntry(Entry entry) {
+        entries.add(entry);
+    }
+
+    // Only computed for incremental runs; null when the file could not be parsed
+    public FileSignature getSignature() {
+        return signature;
+    }
+
+    public void setSignature(FileSignature signature) {
+        this.signature = signature;
+    }
+
+    // Set for files replayed from the incremental manifest instead of being analyzed again
+    public boolean isReused() {
+        return reused;
+    }
+
+    void setReused(boolean reused) {
+        this.reused = reused;
+    }
+
+    // Set when the file could not be read or its analysis threw, so that the result is not treated
+    // as the file's references and the next incremental run analyzes it again
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public void markFailed() {
+        this.failed = true;
+    }
+
+    public void addMethodReference(String qualifiedName, int lineNumber) {
+        entries.add(new Entry(Kind.METHOD_CALL, qualifiedName, lineNumber, null));
+    }
+
+    // The source is the identifier of the member containing the call, or null when unknown
+    public void addMethodCall(String qualifiedName, int lineNumber, String source) {
+        entries.add(new Entry(Kind.METHOD_CALL, qualifiedName, lineNumber, null, source));
+    }
+
+    // Constructor calls that could not be resolved, by class name as written or qualified through the imports
+    public void addConstructorReference(String className, int lineNumber, String source) {
+        entries.add(new Entry(Kind.CONSTRUCTOR_CALL, className, lineNumber, null, source));
+    }
+
+    public void addMethodReference(String identifier, int lineNumber, String type) {
+        entries.add(new Entry(Kind.METHOD_REFERENCE, identifier, lineNumber, type));
+    }
+
+    public void addMethodReference(String identifier, int lineNumber, String type, String source) {
+        entries.add(new Entry(Kind.METHOD_REFERENCE, identifier, lineNumber, type, source));
+    }
+
+    public void addConstructorDefinition(String className, int lineNumber) {
+        entries.add(new Entry(Kind.CONSTRUCTOR_DEFINITION, className, lineNumber, null));
+    }
+
+    public void addClassDefinition(String qualifiedName, int lineNumber) {
+        entries.add(new Entry(Kind.CLASS_DEFINITION, qualifiedName, lineNumber, null));
+    }
+
+    public void addClassReference(String className, int lineNumber, String type) {
+        entries.add(new Entry(Kind.CLASS_REFERENCE, className, lineNumber, type));
+    }
+
+    // Replays the buffered entries in the order they were recorded. The class analyzer may be null
+    // when only method references were extracted.
+    public void applyTo(MethodReferenceAnalyzer methodAnalyzer, ClassReferenceAnalyzer classAnalyzer) {
+        replay(new AnalyzerReferenceSink(methodAnalyzer, classAnalyzer));
+    }
+
+    public void replay(ReferenceSink sink) {
+        sink.beginFile(filePath, reused);
+        for (Entry entry : entries) {
+            switch (entry.kind) {
+                case METHOD_CALL:
+                    sink.methodReference(entry.name, filePath, entry.lineNumber, "Method Call", entry.source);
+                    break;
+                case CONSTRUCTOR_CALL:
+                    sink.methodReference(MethodReferenceAnalyzer.constructorReference(entry.name), filePath, entry.lineNumber,
+                        "Constructor Call", entry.source);
+                    break;
+                case METHOD_REFERENCE:
+                    sink.methodReference(entry.name, filePath, entry.lineNumber, entry.type, entry.source);
+                    break;
+                case CONSTRUCTOR_DEFINITION:
+                    sink.constructorDefinition(entry.name, filePath, entry.lineNumber);
+                    break;
+                case CLASS_DEFINITION:
+                    sink.classDefinition(entry.name, filePath, entry.lineNumber);
+                    break;
+                case CLASS_REFERENCE:
+                    sink.classReference(entry.name, filePath, entry.lineNumber, entry.type);
+                    break;
+            }
+        }
+    }
+}
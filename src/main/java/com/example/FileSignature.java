@@ -0,0 +1,113 @@
+package com.example;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.EnumDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+
+// The parts of a source file that other files can depend on: the types it declares, a hash of
+// their member signatures (bodies excluded), and the simple type names the file itself refers to
+public class FileSignature {
+    private final String signatureHash;
+    private final Set<String> declaredTypes;
+    private final Set<String> referencedNames;
+
+    FileSignature(String signatureHash, Set<String> declaredTypes, Set<String> referencedNames) {
+        this.signatureHash = signatureHash;
+        this.declaredTypes = declaredTypes;
+        this.referencedNames = referencedNames;
+    }
+
+    public static FileSignature of(CompilationUnit cu) {
+        Set<String> declaredTypes = new LinkedHashSet<>();
+        StringBuilder signature = new StringBuilder();
+        for (TypeDeclaration<?> type : cu.findAll(TypeDeclaration.class)) {
+            // Local classes are not visible to other files
+            if (type.getFullyQualifiedName().isEmpty()) {
+                continue;
+            }
+            String qualifiedName = type.getFullyQualifiedName().get();
+            declaredTypes.add(qualifiedName);
+            signature.append(qualifiedName).append(' ').append(type.getModifiers()).append('\n');
+            if (type instanceof ClassOrInterfaceDeclaration) {
+                ClassOrInterfaceDeclaration declaration = (ClassOrInterfaceDeclaration) type;
+                signature.append(declaration.getTypeParameters())
+                    .append(declaration.getExtendedTypes())
+                    .append(declaration.getImplementedTypes()).append('\n');
+            }
+            if (type instanceof EnumDeclaration) {
+                ((EnumDeclaration) type).getEntries().forEach(entry -> signature.append(entry.getNameAsString()).append(','));
+                signature.append('\n');
+            }
+            List<String> members = new ArrayList<>();
+            for (BodyDeclaration<?> member : type.getMembers()) {
+                if (member instanceof CallableDeclaration) {
+                    members.add(((CallableDeclaration<?>) member).getDeclarationAsString(true, true, true));
+                } else if (member instanceof FieldDeclaration) {
+                    FieldDeclaration field = (FieldDeclaration) member;
+                    StringBuilder fieldSignature = new StringBuilder().append(field.getModifiers());
+                    field.getVariables().forEach(variable ->
+                        fieldSignature.append(variable.getType()).append(' ').append(variable.getNameAsString()).append(';'));
+                    members.add(fieldSignature.toString());
+                }
+            }
+            // Member order does not affect resolution
+            Collections.sort(members);
+            members.forEach(member -> signature.append(member).append('\n'));
+        }
+
+        Set<String> referencedNames = new LinkedHashSet<>();
+        cu.findAll(ClassOrInterfaceType.class).forEach(type -> referencedNames.add(type.getNameAsString()));
+        // Type names used as scopes of static calls and constants, e.g. Utils.format(...)
+        cu.findAll(MethodCallExpr.class).forEach(call -> call.getScope()
+            .filter(scope -> scope.isNameExpr())
+            .ifPresent(scope -> referencedNames.add(scope.asNameExpr().getNameAsString())));
+        cu.findAll(FieldAccessExpr.class).forEach(access -> {
+            if (access.getScope().isNameExpr()) {
+                referencedNames.add(access.getScope().asNameExpr().getNameAsString());
+            }
+        });
+
+        return new FileSignature(sha256(signature.toString().getBytes(StandardCharsets.UTF_8)), declaredTypes, referencedNames);
+    }
+
+    public String getSignatureHash() {
+        return signatureHash;
+    }
+
+    public Set<String> getDeclaredTypes() {
+        return declaredTypes;
+    }
+
+    public Set<String> getReferencedNames() {
+        return referencedNames;
+    }
+
+    static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
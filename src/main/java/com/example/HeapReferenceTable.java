@@ -0,0 +1,66 @@
+package com.example;
+
+import java.util.Arrays;
+
+// Reference records stored column-wise in parallel int arrays on the heap. Not thread-safe.
+public class HeapReferenceTable implements ReferenceTable {
+    private int[] targets = new int[1024];
+    private int[] files = new int[1024];
+    private int[] lines = new int[1024];
+    private int[] kinds = new int[1024];
+    private int[] sources = new int[1024];
+    private int size;
+
+    @Override
+    public int add(int target, int file, int line, int kind, int source) {
+        if (size == targets.length) {
+            int capacity = size + (size >> 1);
+            targets = Arrays.copyOf(targets, capacity);
+            files = Arrays.copyOf(files, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            sources = Arrays.copyOf(sources, capacity);
+        }
+        targets[size] = target;
+        files[size] = file;
+        lines[size] = line;
+        kinds[size] = kind;
+        sources[size] = source;
+        return size++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getTarget(int record) {
+        return targets[record];
+    }
+
+    @Override
+    public int getFile(int record) {
+        return files[record];
+    }
+
+    @Override
+    public int getLine(int record) {
+        return lines[record];
+    }
+
+    @Override
+    public int getKind(int record) {
+        return kinds[record];
+    }
+
+    @Override
+    public int getSource(int record) {
+        return sources[record];
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+}
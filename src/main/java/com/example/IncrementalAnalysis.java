@@ -0,0 +1,346 @@
+package com.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Persisted manifest of per-file content hashes and extracted references. A run only re-analyzes
+// files whose content changed, plus unchanged files that refer to a type whose signature changed;
+// the references of every other file are replayed from the manifest.
+//
+// Dependencies are tracked by simple type name, which over-approximates but never misses a direct
+// reference. Types reached only through return types of calls (a.getB().run()) are tracked through
+// the declaring types of the resolved targets recorded for the file.
+public class IncrementalAnalysis {
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalAnalysis.class);
+    private static final int MAGIC = 0x52414D46;
+    private static final int VERSION = 5;
+
+    private final Path manifestFile;
+    private final Path sourceRoot;
+    private final String configurationKey;
+    private final Map<String, FileState> previousStates;
+    private final Map<Path, String> contentHashes = new HashMap<>();
+    private final Set<String> changedTypes = new HashSet<>();
+
+    static class FileState {
+        final String contentHash;
+        final String signatureHash;
+        final Set<String> declaredTypes;
+        final Set<String> referencedNames;
+        final List<FileReferences.Entry> entries;
+
+        FileState(String contentHash, String signatureHash, Set<String> declaredTypes, Set<String> referencedNames,
+                List<FileReferences.Entry> entries) {
+            this.contentHash = contentHash;
+            this.signatureHash = signatureHash;
+            this.declaredTypes = declaredTypes;
+            this.referencedNames = referencedNames;
+            this.entries = entries;
+        }
+    }
+
+    // Analyzes the given files and passes each result to the consumer, in any order
+    public interface FileAnalyzer {
+        void analyze(List<Path> files, Consumer<FileReferences> consumer) throws IOException;
+    }
+
+    private IncrementalAnalysis(Path manifestFile, Path sourceRoot, String configurationKey, Map<String, FileState> previousStates) {
+        this.manifestFile = manifestFile;
+        this.sourceRoot = sourceRoot;
+        this.configurationKey = configurationKey;
+        this.previousStates = previousStates;
+    }
+
+    public static Path manifestPath(String projectPath, String name) {
+        return Paths.get(projectPath, "target", "reference-analyzer", name + ".manifest");
+    }
+
+    // The configuration key covers everything besides the sources that affects resolution, such as
+    // the dependency jars; a manifest written under a different key is discarded
+    public static IncrementalAnalysis load(Path manifestFile, Path sourceRoot, String configurationKey) {
+        Map<String, FileState> states = new LinkedHashMap<>();
+        if (Files.exists(manifestFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifestFile)))) {
+                if (in.readInt() == MAGIC && in.readInt() == VERSION && in.readUTF().equals(configurationKey)) {
+                    int fileCount = in.readInt();
+                    for (int i = 0; i < fileCount; i++) {
+                        String relativePath = in.readUTF();
+                        states.put(relativePath, readState(in));
+                    }
+                    logger.info("Loaded analysis manifest with {} files from {}", states.size(), manifestFile);
+                } else {
+                    logger.info("Analysis manifest {} is outdated, running a full analysis", manifestFile);
+                }
+            } catch (IOException e) {
+                logger.warn("Could not read analysis manifest {}, running a full analysis", manifestFile, e);
+                states.clear();
+            }
+        }
+        return new IncrementalAnalysis(manifestFile, sourceRoot, configurationKey, states);
+    }
+
+    // Passes the references of every file to the consumer in the order of javaFiles, re-analyzing
+    // only what is needed, then writes the updated manifest
+    public void analyze(List<Path> javaFiles, FileAnalyzer analyzer, Consumer<FileReferences> consumer) throws IOException {
+        analyze(javaFiles, Collections.emptySet(), analyzer, consumer);
+    }
+
+    // Same as above for a module whose upstream modules changed the given types in this run, so
+    // that unchanged files referring to them are analyzed again as well
+    public void analyze(List<Path> javaFiles, Set<String> upstreamChangedTypes, FileAnalyzer analyzer,
+            Consumer<FileReferences> consumer) throws IOException {
+        Map<Path, FileReferences> analyzed = new HashMap<>();
+        analyzeFiles(findChangedFiles(javaFiles), analyzer, analyzed);
+        analyzeFiles(findDependentFiles(javaFiles, upstreamChangedTypes, analyzed), analyzer, analyzed);
+
+        for (Path path : javaFiles) {
+            FileReferences references = analyzed.get(path);
+            consumer.accept(references != null ? references : reuse(path));
+        }
+        save(javaFiles, analyzed);
+    }
+
+    // A file the analyzer did not return a result for failed; it is passed on without references so
+    // that its stale references are not carried over, and saved so that the next run analyzes it again
+    private static void analyzeFiles(List<Path> files, FileAnalyzer analyzer, Map<Path, FileReferences> analyzed) throws IOException {
+        analyzer.analyze(files, references -> analyzed.put(references.getFilePath(), references));
+        for (Path path : files) {
+            if (!analyzed.containsKey(path)) {
+                logger.warn("Analysis of {} failed, recording it without references", path);
+                FileReferences references = new FileReferences(path);
+                references.markFailed();
+                analyzed.put(path, references);
+            }
+        }
+    }
+
+    // Hashes every file and returns the ones that are new or whose content changed
+    private List<Path> findChangedFiles(List<Path> javaFiles) throws IOException {
+        List<Path> changed = new ArrayList<>();
+        for (Path path : javaFiles) {
+            String hash = FileSignature.sha256(Files.readAllBytes(path));
+            contentHashes.put(path, hash);
+            FileState previous = previousStates.get(relativize(path));
+            if (previous == null || !previous.contentHash.equals(hash)) {
+                changed.add(path);
+            }
+        }
+        logger.info("{} of {} files changed since the last analysis", changed.size(), javaFiles.size());
+        return changed;
+    }
+
+    // Types whose signature changed, was added or was removed in the last call to analyze, including
+    // the upstream ones passed to it, by qualified and simple name
+    public Set<String> getChangedTypes() {
+        return changedTypes;
+    }
+
+    // Unchanged files that refer to a type whose signature changed, was added or was removed
+    private List<Path> findDependentFiles(List<Path> javaFiles, Set<String> upstreamChangedTypes,
+            Map<Path, FileReferences> analyzed) {
+        Set<String> current = new HashSet<>();
+        javaFiles.forEach(path -> current.add(relativize(path)));
+
+        changedTypes.clear();
+        changedTypes.addAll(upstreamChangedTypes);
+        for (FileReferences references : analyzed.values()) {
+            FileSignature signature = references.getSignature();
+            FileState previous = previousStates.get(relativize(references.getFilePath()));
+            String newHash = signature != null ? signature.getSignatureHash() : "";
+            if (previous == null || !previous.signatureHash.equals(newHash)) {
+                if (previous != null) {
+                    addTypeNames(changedTypes, previous.declaredTypes);
+                }
+                if (signature != null) {
+                    addTypeNames(changedTypes, signature.getDeclaredTypes());
+                }
+            }
+        }
+        for (Map.Entry<String, FileState> entry : previousStates.entrySet()) {
+            if (!current.contains(entry.getKey())) {
+                addTypeNames(changedTypes, entry.getValue().declaredTypes);
+            }
+        }
+        if (changedTypes.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Path> dependents = new ArrayList<>();
+        for (Path path : javaFiles) {
+            if (analyzed.containsKey(path)) {
+                continue;
+            }
+            FileState previous = previousStates.get(relativize(path));
+            if (previous == null) {
+                continue;
+            }
+            for (String name : previous.referencedNames) {
+                if (changedTypes.contains(name)) {
+                    dependents.add(path);
+                    break;
+                }
+            }
+        }
+        logger.info("{} unchanged files depend on {} changed types", dependents.size(), changedTypes.size());
+        return dependents;
+    }
+
+    // References recorded for an unchanged file in the previous run
+    private FileReferences reuse(Path path) {
+        FileReferences references = new FileReferences(path);
+        FileState previous = previousStates.get(relativize(path));
+        if (previous != null) {
+            previous.entries.forEach(references::addEntry);
+            references.setReused(true);
+        }
+        return references;
+    }
+
+    // Records the current state of every file and writes the manifest
+    private void save(List<Path> javaFiles, Map<Path, FileReferences> analyzed) throws IOException {
+        Map<String, FileState> states = new LinkedHashMap<>();
+        for (Path path : javaFiles) {
+            String relativePath = relativize(path);
+            FileReferences references = analyzed.get(path);
+            if (references == null) {
+                FileState previous = previousStates.get(relativePath);
+                if (previous != null) {
+                    states.put(relativePath, previous);
+                }
+                continue;
+            }
+            if (references.isFailed()) {
+                // No content hash matches the empty one, so the file counts as changed next time
+                states.put(relativePath, new FileState("", "", new LinkedHashSet<>(), new LinkedHashSet<>(), new ArrayList<>()));
+                continue;
+            }
+            FileSignature signature = references.getSignature();
+            Set<String> referencedNames = new LinkedHashSet<>();
+            if (signature != null) {
+                referencedNames.addAll(signature.getReferencedNames());
+            }
+            references.getEntries().forEach(entry -> addReferencedTypeName(referencedNames, entry));
+            states.put(relativePath, new FileState(contentHashes.get(path),
+                signature != null ? signature.getSignatureHash() : "",
+                signature != null ? signature.getDeclaredTypes() : new LinkedHashSet<>(),
+                referencedNames, references.getEntries()));
+        }
+
+        Files.createDirectories(manifestFile.getParent());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(manifestFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(configurationKey);
+            out.writeInt(states.size());
+            for (Map.Entry<String, FileState> entry : states.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeState(out, entry.getValue());
+            }
+        }
+        logger.info("Wrote analysis manifest with {} files to {}", states.size(), manifestFile);
+    }
+
+    private String relativize(Path path) {
+        return sourceRoot.relativize(path).toString();
+    }
+
+    // Qualified names count under their simple name as well, since that is how files refer to them
+    private static void addTypeNames(Set<String> names, Collection<String> qualifiedNames) {
+        for (String qualifiedName : qualifiedNames) {
+            names.add(qualifiedName);
+            names.add(qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1));
+        }
+    }
+
+    // Declaring type of a resolved target, e.g. "B" for "com.example.B::run()" or "com.example.B.run"
+    private static void addReferencedTypeName(Set<String> names, FileReferences.Entry entry) {
+        String name = entry.name;
+        int separator = name.indexOf("::");
+        if (separator >= 0) {
+            name = name.substring(0, separator);
+        } else if (entry.kind == FileReferences.Kind.METHOD_CALL && name.lastIndexOf('.') > 0) {
+            name = name.substring(0, name.lastIndexOf('.'));
+        }
+        names.add(name.substring(name.lastIndexOf('.') + 1));
+    }
+
+    private static FileState readState(DataInputStream in) throws IOException {
+        String contentHash = in.readUTF();
+        String signatureHash = in.readUTF();
+        Set<String> declaredTypes = readStrings(in);
+        Set<String> referencedNames = readStrings(in);
+        int entryCount = in.readInt();
+        List<FileReferences.Entry> entries = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            FileReferences.Kind kind = FileReferences.Kind.values()[in.readByte()];
+            String name = in.readUTF();
+            int lineNumber = in.readInt();
+            String type = readOptionalString(in);
+            String source = readOptionalString(in);
+            entries.add(new FileReferences.Entry(kind, name, lineNumber, type, source));
+        }
+        return new FileState(contentHash, signatureHash, declaredTypes, referencedNames, entries);
+    }
+
+    private static void writeState(DataOutputStream out, FileState state) throws IOException {
+        out.writeUTF(state.contentHash);
+        out.writeUTF(state.signatureHash);
+        writeStrings(out, state.declaredTypes);
+        writeStrings(out, state.referencedNames);
+        out.writeInt(state.entries.size());
+        for (FileReferences.Entry entry : state.entries) {
+            out.writeByte(entry.kind.ordinal());
+            out.writeUTF(entry.name);
+            out.writeInt(entry.lineNumber);
+            writeOptionalString(out, entry.type);
+            writeOptionalString(out, entry.source);
+        }
+    }
+
+    private static String readOptionalString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeOptionalString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static Set<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Set<String> values = new LinkedHashSet<>();
+        for (int i = 0; i < count; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+
+    private static void writeStrings(DataOutputStream out, Set<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Writes one JSON object per event as soon as it is received, e.g.
+//   {"event":"methodReference","reference":"a.B::c()","file":"src/B.java","line":12,"type":"Method Call","source":"a.B::d()"}
+// Events are "methodReference", "constructorDefinition", "classDefinition" and "classReference";
+// fields that are unknown are left out.
+public class JsonLinesReferenceSink implements ReferenceSink {
+    private final Writer writer;
+
+    public JsonLinesReferenceSink(Path outputPath) throws IOException {
+        writer = Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void methodReference(String reference, Path filePath, int lineNumber, String type, String source) {
+        writeEvent("methodReference", "reference", reference, filePath, lineNumber, type, source);
+    }
+
+    @Override
+    public void constructorDefinition(String className, Path filePath, int lineNumber) {
+        writeEvent("constructorDefinition", "class", className, filePath, lineNumber, null, null);
+    }
+
+    @Override
+    public void classDefinition(String qualifiedName, Path filePath, int lineNumber) {
+        writeEvent("classDefinition", "class", qualifiedName, filePath, lineNumber, null, null);
+    }
+
+    @Override
+    public void classReference(String className, Path filePath, int lineNumber, String type) {
+        writeEvent("classReference", "class", className, filePath, lineNumber, type, null);
+    }
+
+    private void writeEvent(String event, String nameField, String name, Path filePath, int lineNumber, String type, String source) {
+        try {
+            writer.write("{\"event\":\"");
+            writer.write(event);
+            writer.write("\",\"");
+            writer.write(nameField);
+            writer.write("\":");
+            writeString(name);
+            writer.write(",\"file\":");
+            writeString(filePath.toString());
+            writer.write(",\"line\":");
+            writer.write(Integer.toString(lineNumber));
+            if (type != null) {
+                writer.write(",\"type\":");
+                writeString(type);
+            }
+            if (source != null) {
+                writer.write(",\"source\":");
+                writeString(source);
+            }
+            writer.write("}\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing JSON Lines references", e);
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write(String.format("\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JarTypeSolver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Type solver over all dependency jars that opens a jar only when a class it contains is first
+// looked up. Names missing from the ClassJarIndex are rejected without touching any jar. Like the
+// other type solvers it is not thread-safe; each worker needs its own instance.
+public class LazyJarTypeSolver implements TypeSolver {
+    private static final Logger logger = LoggerFactory.getLogger(LazyJarTypeSolver.class);
+
+    private final ClassJarIndex index;
+    // Null values mark jars that could not be opened
+    private final Map<Path, JarTypeSolver> jarSolvers = new HashMap<>();
+    private TypeSolver parent;
+
+    public LazyJarTypeSolver(ClassJarIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public TypeSolver getParent() {
+        return parent;
+    }
+
+    // Unlike the JavaParser solvers this one can be moved to a new root, so that a long-lived
+    // session keeps its opened jars when the rest of the solver chain is rebuilt
+    @Override
+    public void setParent(TypeSolver parent) {
+        this.parent = parent;
+    }
+
+    @Override
+    public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+        Path jar = index.findJar(name);
+        if (jar == null) {
+            return SymbolReference.unsolved();
+        }
+        JarTypeSolver solver = jarSolver(jar);
+        return solver != null ? solver.tryToSolveType(name) : SymbolReference.unsolved();
+    }
+
+    public int getOpenJarCount() {
+        return jarSolvers.size();
+    }
+
+    private JarTypeSolver jarSolver(Path jar) {
+        if (jarSolvers.containsKey(jar)) {
+            return jarSolvers.get(jar);
+        }
+        JarTypeSolver solver = null;
+        try {
+            solver = new JarTypeSolver(jar);
+            // Types in the jar refer to types elsewhere on the classpath through the root solver
+            solver.setParent(this);
+            logger.debug("Opened dependency jar {}", jar);
+        } catch (IOException e) {
+            logger.warn("Could not add type solver for dependency jar: {}", jar);
+        }
+        jarSolvers.put(jar, solver);
+        return solver;
+    }
+}
@@ -0,0 +1,343 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Dependency jars of a project from the local Maven repository. Handles what the effective pom
+// needs for the classpath: ${...} properties, parent poms, dependencyManagement including imported
+// BOMs, and transitive compile/runtime dependencies with exclusions and optional dependencies.
+// Conflicts are settled like Maven does, nearest declaration first; versions managed by the
+// project override transitive ones. Version ranges and profiles are not supported.
+public class MavenClasspath {
+    private static final Logger logger = LoggerFactory.getLogger(MavenClasspath.class);
+    private static final int MAX_INTERPOLATION_DEPTH = 10;
+
+    private final Path localRepository;
+    // Effective models of repository poms by groupId:artifactId:version, null when unreadable
+    private final Map<String, EffectiveModel> repositoryModels = new HashMap<>();
+
+    MavenClasspath(Path localRepository) {
+        this.localRepository = localRepository;
+    }
+
+    public static List<String> resolve(Path projectDir, Model model) {
+        MavenClasspath classpath = new MavenClasspath(defaultLocalRepository());
+        return classpath.resolveJars(projectDir, model);
+    }
+
+    static Path defaultLocalRepository() {
+        String override = System.getProperty("maven.repo.local");
+        return override != null ? Paths.get(override) : Paths.get(System.getProperty("user.home"), ".m2", "repository");
+    }
+
+    List<String> resolveJars(Path projectDir, Model model) {
+        return resolveJars(projectDir, model, Collections.emptySet());
+    }
+
+    // Dependencies on the given groupId:artifactId keys are skipped together with their own
+    // dependencies; reactor modules are analyzed from source and resolve their own jars
+    List<String> resolveJars(Path projectDir, Model model, Set<String> reactorModules) {
+        EffectiveModel project = effectiveModel(model, projectDir.resolve("pom.xml"));
+        List<String> jars = new ArrayList<>();
+        Set<String> resolved = new HashSet<>();
+        Deque<Node> queue = new ArrayDeque<>();
+        // All direct dependencies are used, as before; test scope only matters for their own dependencies
+        for (Dependency dependency : project.dependencies.values()) {
+            queue.add(new Node(dependency, Collections.emptySet(), true));
+        }
+
+        // Breadth-first, so the first version seen for an artifact is the nearest one
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            Dependency dependency = node.dependency;
+            String key = dependency.getGroupId() + ":" + dependency.getArtifactId();
+            if (!resolved.add(key) || reactorModules.contains(key)) {
+                continue;
+            }
+            Dependency managed = node.direct ? null : project.managed.get(key);
+            String version = managed != null && managed.getVersion() != null ? managed.getVersion() : dependency.getVersion();
+            if (version == null || version.contains("${") || version.startsWith("[") || version.startsWith("(")) {
+                logger.warn("Could not determine the version of dependency {} ({})", key, version);
+                continue;
+            }
+
+            Path jar = jarPath(dependency, version);
+            if (jar != null) {
+                if (Files.exists(jar)) {
+                    jars.add(jar.toString());
+                    logger.debug("Added dependency jar {}", jar);
+                } else {
+                    logger.warn("JAR not found for dependency: {}:{} at {}", key, version, jar);
+                }
+            }
+            if ("system".equals(dependency.getScope())) {
+                continue;
+            }
+
+            EffectiveModel pom = repositoryModel(dependency.getGroupId(), dependency.getArtifactId(), version);
+            if (pom == null) {
+                continue;
+            }
+            for (Dependency transitive : pom.dependencies.values()) {
+                String scope = transitive.getScope();
+                String transitiveKey = transitive.getGroupId() + ":" + transitive.getArtifactId();
+                if (transitive.isOptional() || !("compile".equals(scope) || "runtime".equals(scope))
+                        || node.excludes(transitive) || resolved.contains(transitiveKey)) {
+                    continue;
+                }
+                queue.add(new Node(transitive, node.exclusions, false));
+            }
+        }
+        logger.info("Resolved {} dependency jars", jars.size());
+        return jars;
+    }
+
+    private Path jarPath(Dependency dependency, String version) {
+        if ("system".equals(dependency.getScope())) {
+            return dependency.getSystemPath() != null ? Paths.get(dependency.getSystemPath()) : null;
+        }
+        String type = dependency.getType();
+        if ("pom".equals(type)) {
+            return null;
+        }
+        String classifier = "test-jar".equals(type) ? "tests" : dependency.getClassifier();
+        String fileName = dependency.getArtifactId() + "-" + version
+            + (classifier != null && !classifier.isEmpty() ? "-" + classifier : "") + ".jar";
+        return artifactDirectory(dependency.getGroupId(), dependency.getArtifactId(), version).resolve(fileName);
+    }
+
+    private Path artifactDirectory(String groupId, String artifactId, String version) {
+        return localRepository.resolve(groupId.replace('.', '/')).resolve(artifactId).resolve(version);
+    }
+
+    private EffectiveModel repositoryModel(String groupId, String artifactId, String version) {
+        String key = groupId + ":" + artifactId + ":" + version;
+        if (repositoryModels.containsKey(key)) {
+            return repositoryModels.get(key);
+        }
+        // Guards against parent or import cycles while the model is being built
+        repositoryModels.put(key, null);
+        Path pomFile = artifactDirectory(groupId, artifactId, version).resolve(artifactId + "-" + version + ".pom");
+        Model model = readModel(pomFile);
+        EffectiveModel effective = model != null ? effectiveModel(model, pomFile) : null;
+        repositoryModels.put(key, effective);
+        return effective;
+    }
+
+    private static Model readModel(Path pomFile) {
+        if (!Files.exists(pomFile)) {
+            logger.debug("POM not found: {}", pomFile);
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(pomFile)) {
+            return new MavenXpp3Reader().read(in, false);
+        } catch (IOException | XmlPullParserException e) {
+            logger.warn("Could not read POM {}", pomFile, e);
+            return null;
+        }
+    }
+
+    private EffectiveModel effectiveModel(Model model, Path pomFile) {
+        EffectiveModel parent = parentModel(model, pomFile);
+        EffectiveModel effective = new EffectiveModel();
+
+        if (parent != null) {
+            effective.properties.putAll(parent.properties);
+        }
+        effective.properties.putAll(model.getProperties());
+        String groupId = model.getGroupId() != null ? model.getGroupId() : model.getParent() != null ? model.getParent().getGroupId() : null;
+        String version = model.getVersion() != null ? model.getVersion() : model.getParent() != null ? model.getParent().getVersion() : null;
+        setProperty(effective.properties, groupId, "project.groupId", "pom.groupId", "groupId");
+        setProperty(effective.properties, model.getArtifactId(), "project.artifactId", "pom.artifactId", "artifactId");
+        setProperty(effective.properties, version, "project.version", "pom.version", "version");
+        if (model.getParent() != null) {
+            setProperty(effective.properties, model.getParent().getGroupId(), "project.parent.groupId", "parent.groupId");
+            setProperty(effective.properties, model.getParent().getVersion(), "project.parent.version", "parent.version");
+        }
+
+        // Own entries win over imported BOMs, which win over the parent's
+        if (model.getDependencyManagement() != null) {
+            List<Dependency> imports = new ArrayList<>();
+            for (Dependency dependency : model.getDependencyManagement().getDependencies()) {
+                Dependency interpolated = interpolate(dependency, effective.properties);
+                if ("import".equals(interpolated.getScope()) && "pom".equals(interpolated.getType())) {
+                    imports.add(interpolated);
+                } else {
+                    effective.managed.putIfAbsent(managementKey(interpolated), interpolated);
+                }
+            }
+            for (Dependency bom : imports) {
+                EffectiveModel imported = bom.getVersion() != null
+                    ? repositoryModel(bom.getGroupId(), bom.getArtifactId(), bom.getVersion()) : null;
+                if (imported != null) {
+                    imported.managed.forEach(effective.managed::putIfAbsent);
+                } else {
+                    logger.warn("Could not import BOM {}:{}:{}", bom.getGroupId(), bom.getArtifactId(), bom.getVersion());
+                }
+            }
+        }
+        if (parent != null) {
+            parent.managed.forEach(effective.managed::putIfAbsent);
+            effective.dependencies.putAll(parent.dependencies);
+        }
+
+        for (Dependency declared : model.getDependencies()) {
+            Dependency dependency = interpolate(declared, effective.properties);
+            Dependency managed = effective.managed.get(managementKey(dependency));
+            if (managed != null) {
+                if (dependency.getVersion() == null) {
+                    dependency.setVersion(managed.getVersion());
+                }
+                if (declared.getScope() == null) {
+                    dependency.setScope(managed.getScope());
+                }
+                if (dependency.getExclusions().isEmpty()) {
+                    dependency.setExclusions(managed.getExclusions());
+                }
+            }
+            if (dependency.getScope() == null) {
+                dependency.setScope("compile");
+            }
+            effective.dependencies.put(managementKey(dependency), dependency);
+        }
+        return effective;
+    }
+
+    // The parent from its relative path when that pom is the declared parent, otherwise from the repository
+    private EffectiveModel parentModel(Model model, Path pomFile) {
+        Parent parent = model.getParent();
+        if (parent == null) {
+            return null;
+        }
+        String relativePath = parent.getRelativePath();
+        if (relativePath != null && !relativePath.isEmpty() && pomFile.getParent() != null) {
+            Path parentPom = pomFile.getParent().resolve(relativePath).normalize();
+            if (Files.isDirectory(parentPom)) {
+                parentPom = parentPom.resolve("pom.xml");
+            }
+            Model parentModel = readModel(parentPom);
+            if (parentModel != null && parent.getArtifactId().equals(parentModel.getArtifactId())) {
+                return effectiveModel(parentModel, parentPom);
+            }
+        }
+        return repositoryModel(parent.getGroupId(), parent.getArtifactId(), parent.getVersion());
+    }
+
+    private static void setProperty(Properties properties, String value, String... names) {
+        if (value != null) {
+            for (String name : names) {
+                properties.setProperty(name, value);
+            }
+        }
+    }
+
+    private static String managementKey(Dependency dependency) {
+        return dependency.getGroupId() + ":" + dependency.getArtifactId();
+    }
+
+    private static Dependency interpolate(Dependency dependency, Properties properties) {
+        Dependency interpolated = dependency.clone();
+        interpolated.setGroupId(interpolate(dependency.getGroupId(), properties));
+        interpolated.setArtifactId(interpolate(dependency.getArtifactId(), properties));
+        interpolated.setVersion(interpolate(dependency.getVersion(), properties));
+        interpolated.setClassifier(interpolate(dependency.getClassifier(), properties));
+        interpolated.setScope(interpolate(dependency.getScope(), properties));
+        interpolated.setSystemPath(interpolate(dependency.getSystemPath(), properties));
+        return interpolated;
+    }
+
+    // Replaces ${name} references, including nested ones, from the pom properties and then the
+    // system properties; unknown references are left in place
+    static String interpolate(String value, Properties properties) {
+        if (value == null || !value.contains("${")) {
+            return value;
+        }
+        String result = value;
+        for (int depth = 0; depth < MAX_INTERPOLATION_DEPTH && result.contains("${"); depth++) {
+            StringBuilder interpolated = new StringBuilder();
+            int position = 0;
+            boolean replaced = false;
+            while (position < result.length()) {
+                int start = result.indexOf("${", position);
+                int end = start < 0 ? -1 : result.indexOf('}', start);
+                if (end < 0) {
+                    interpolated.append(result, position, result.length());
+                    break;
+                }
+                String name = result.substring(start + 2, end);
+                String property = properties.getProperty(name, System.getProperty(name));
+                interpolated.append(result, position, start);
+                if (property != null) {
+                    interpolated.append(property);
+                    replaced = true;
+                } else {
+                    interpolated.append(result, start, end + 1);
+                }
+                position = end + 1;
+            }
+            result = interpolated.toString();
+            if (!replaced) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static class EffectiveModel {
+        final Properties properties = new Properties();
+        // Managed dependencies by groupId:artifactId
+        final Map<String, Dependency> managed = new LinkedHashMap<>();
+        // Declared dependencies by groupId:artifactId, with versions and scopes filled in
+        final Map<String, Dependency> dependencies = new LinkedHashMap<>();
+    }
+
+    private static class Node {
+        final Dependency dependency;
+        final boolean direct;
+        // groupId:artifactId pairs excluded for the dependencies of this one, including the exclusions
+        // inherited along the path from the project; "*" wildcards are allowed
+        final Set<String> exclusions;
+
+        Node(Dependency dependency, Set<String> inheritedExclusions, boolean direct) {
+            this.dependency = dependency;
+            this.direct = direct;
+            if (dependency.getExclusions().isEmpty()) {
+                this.exclusions = inheritedExclusions;
+            } else {
+                this.exclusions = new HashSet<>(inheritedExclusions);
+                for (Exclusion exclusion : dependency.getExclusions()) {
+                    this.exclusions.add(exclusion.getGroupId() + ":" + exclusion.getArtifactId());
+                }
+            }
+        }
+
+        boolean excludes(Dependency dependency) {
+            return exclusions.contains(dependency.getGroupId() + ":" + dependency.getArtifactId())
+                || exclusions.contains(dependency.getGroupId() + ":*")
+                || exclusions.contains("*:*");
+        }
+    }
+}
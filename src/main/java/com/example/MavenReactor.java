@@ -0,0 +1,217 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// The modules of a Maven build, read from <modules> recursively starting at the root pom, and the
+// dependencies between them. A project without modules is a reactor of one. Modules are kept in
+// build order: every module comes after the reactor modules it depends on, otherwise in declaration
+// order. Modules listed only in profiles are not included.
+public class MavenReactor {
+    private static final Logger logger = LoggerFactory.getLogger(MavenReactor.class);
+
+    public static class Module {
+        final String key;
+        final Path pomFile;
+        final Path directory;
+        final Model model;
+        final Path sourcePath;
+        // Build-order indexes of the reactor modules this one depends on, directly or transitively
+        final List<Integer> upstream = new ArrayList<>();
+
+        Module(String key, Path pomFile, Model model, Path sourcePath) {
+            this.key = key;
+            this.pomFile = pomFile;
+            this.directory = pomFile.getParent();
+            this.model = model;
+            this.sourcePath = sourcePath;
+        }
+
+        // groupId:artifactId
+        public String getKey() {
+            return key;
+        }
+
+        public Path getPomFile() {
+            return pomFile;
+        }
+
+        public Path getDirectory() {
+            return directory;
+        }
+
+        // Null when the module has no source directory, e.g. an aggregator pom
+        public Path getSourcePath() {
+            return sourcePath;
+        }
+
+        public List<Integer> getUpstream() {
+            return upstream;
+        }
+    }
+
+    private final List<Module> modules;
+
+    private MavenReactor(List<Module> modules) {
+        this.modules = modules;
+    }
+
+    public static MavenReactor load(Path rootDirectory) throws IOException, XmlPullParserException {
+        List<Module> declared = new ArrayList<>();
+        collectModules(rootDirectory.resolve("pom.xml"), new LinkedHashSet<>(), declared);
+        return new MavenReactor(buildOrder(declared));
+    }
+
+    public List<Module> getModules() {
+        return modules;
+    }
+
+    public int size() {
+        return modules.size();
+    }
+
+    public Set<String> getModuleKeys() {
+        Set<String> keys = new LinkedHashSet<>();
+        modules.forEach(module -> keys.add(module.key));
+        return keys;
+    }
+
+    private static void collectModules(Path pomFile, Set<Path> visited, List<Module> modules) throws IOException, XmlPullParserException {
+        pomFile = pomFile.toAbsolutePath().normalize();
+        if (!visited.add(pomFile)) {
+            return;
+        }
+        Model model;
+        try (InputStream in = Files.newInputStream(pomFile)) {
+            model = new MavenXpp3Reader().read(in);
+        }
+        Path directory = pomFile.getParent();
+        String sourceDir = model.getBuild() != null && model.getBuild().getSourceDirectory() != null
+                ? model.getBuild().getSourceDirectory()
+                : "src/main/java";
+        Path sourcePath = directory.resolve(sourceDir);
+        String groupId = model.getGroupId() != null ? model.getGroupId() : model.getParent() != null ? model.getParent().getGroupId() : null;
+        modules.add(new Module(groupId + ":" + model.getArtifactId(), pomFile, model, Files.isDirectory(sourcePath) ? sourcePath : null));
+
+        for (String name : model.getModules()) {
+            Path modulePath = directory.resolve(name);
+            Path modulePom = Files.isDirectory(modulePath) ? modulePath.resolve("pom.xml") : modulePath;
+            if (Files.exists(modulePom)) {
+                collectModules(modulePom, visited, modules);
+            } else {
+                logger.warn("Module {} of {} not found at {}", name, pomFile, modulePom);
+            }
+        }
+    }
+
+    // Topological sort that keeps the declaration order among modules that do not depend on each other
+    private static List<Module> buildOrder(List<Module> declared) {
+        Map<String, Integer> indexByKey = new HashMap<>();
+        for (int i = 0; i < declared.size(); i++) {
+            indexByKey.put(declared.get(i).key, i);
+        }
+        List<List<Integer>> dependencies = new ArrayList<>();
+        List<List<Integer>> dependents = new ArrayList<>();
+        for (int i = 0; i < declared.size(); i++) {
+            dependents.add(new ArrayList<>());
+        }
+        int[] remaining = new int[declared.size()];
+        for (int i = 0; i < declared.size(); i++) {
+            List<Integer> direct = reactorDependencies(declared.get(i), indexByKey);
+            dependencies.add(direct);
+            remaining[i] = direct.size();
+            for (int dependency : direct) {
+                dependents.get(dependency).add(i);
+            }
+        }
+
+        List<Integer> order = new ArrayList<>();
+        boolean[] done = new boolean[declared.size()];
+        while (order.size() < declared.size()) {
+            int next = -1;
+            for (int i = 0; i < declared.size() && next < 0; i++) {
+                if (!done[i] && remaining[i] == 0) {
+                    next = i;
+                }
+            }
+            if (next < 0) {
+                List<String> cycle = new ArrayList<>();
+                for (int i = 0; i < declared.size(); i++) {
+                    if (!done[i]) {
+                        cycle.add(declared.get(i).key);
+                    }
+                }
+                throw new IllegalStateException("The reactor modules have a dependency cycle: " + cycle);
+            }
+            done[next] = true;
+            order.add(next);
+            for (int dependent : dependents.get(next)) {
+                remaining[dependent]--;
+            }
+        }
+
+        int[] position = new int[declared.size()];
+        List<Module> ordered = new ArrayList<>();
+        for (int i = 0; i < order.size(); i++) {
+            position[order.get(i)] = i;
+            ordered.add(declared.get(order.get(i)));
+        }
+        // Upstream modules come earlier in build order, so their closures are already complete
+        for (int i = 0; i < ordered.size(); i++) {
+            Set<Integer> upstream = new LinkedHashSet<>();
+            for (int dependency : dependencies.get(order.get(i))) {
+                int upstreamPosition = position[dependency];
+                upstream.add(upstreamPosition);
+                upstream.addAll(ordered.get(upstreamPosition).upstream);
+            }
+            List<Integer> sorted = new ArrayList<>(upstream);
+            Collections.sort(sorted);
+            ordered.get(i).upstream.addAll(sorted);
+        }
+        return ordered;
+    }
+
+    // Declared dependencies on other reactor modules, whatever their version; test scope is left
+    // out since only main sources are analyzed
+    private static List<Integer> reactorDependencies(Module module, Map<String, Integer> indexByKey) {
+        Properties properties = new Properties();
+        properties.putAll(module.model.getProperties());
+        String groupId = module.key.substring(0, module.key.indexOf(':'));
+        properties.setProperty("project.groupId", groupId);
+        properties.setProperty("groupId", groupId);
+        if (module.model.getParent() != null) {
+            properties.setProperty("project.parent.groupId", module.model.getParent().getGroupId());
+        }
+
+        List<Integer> direct = new ArrayList<>();
+        for (Dependency dependency : module.model.getDependencies()) {
+            if ("test".equals(dependency.getScope())) {
+                continue;
+            }
+            String key = MavenClasspath.interpolate(dependency.getGroupId(), properties) + ":"
+                + MavenClasspath.interpolate(dependency.getArtifactId(), properties);
+            Integer index = indexByKey.get(key);
+            if (index != null && !key.equals(module.key) && !direct.contains(index)) {
+                direct.add(index);
+            }
+        }
+        return direct;
+    }
+}
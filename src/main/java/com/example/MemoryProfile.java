@@ -0,0 +1,38 @@
+package com.example;
+
+import java.nio.file.Path;
+
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
+
+// How much parsed source the analysis keeps around. DEFAULT keeps everything JavaParser records and
+// lets the source type solvers cache every file they parse. LOW_MEMORY is meant for very large
+// source trees on small machines: comments are not attached to the trees, since no analyzer reads
+// them, and each source type solver caches at most TYPE_SOLVER_CACHE_SIZE parsed files, directories
+// and found types, evicting the rest, so its memory is bounded whatever the size of the project.
+// Nothing needs releasing between files: the symbol solver stores the types it resolves on the
+// nodes of the tree, so they become garbage with it, and every worker keeps its one facade.
+// Tokens stay on in both profiles because JavaParser derives node positions from them.
+public enum MemoryProfile {
+    DEFAULT,
+    LOW_MEMORY;
+
+    static final long TYPE_SOLVER_CACHE_SIZE = 1_000;
+
+    public ParserConfiguration parserConfiguration() {
+        ParserConfiguration configuration = new ParserConfiguration();
+        if (this == LOW_MEMORY) {
+            configuration.setAttributeComments(false)
+                .setDetectOriginalLineSeparator(false);
+        }
+        return configuration;
+    }
+
+    // Source files parsed by the solver use the same configuration as the analyzed files
+    public JavaParserTypeSolver sourceSolver(Path sourcePath) {
+        if (this == LOW_MEMORY) {
+            return new JavaParserTypeSolver(sourcePath, parserConfiguration(), TYPE_SOLVER_CACHE_SIZE);
+        }
+        return new JavaParserTypeSolver(sourcePath);
+    }
+}
@@ -0,0 +1,246 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.EnumConstantDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.stmt.Statement;
+import com.github.javaparser.resolution.declarations.ResolvedConstructorDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedMethodLikeDeclaration;
+
+// Builds the "package.Class::method(ParamType, ...)" identifiers used for Method nodes in Neo4j
+public class MethodIdentifiers {
+
+    private static final int MAX_CACHED_IDENTIFIERS = 50_000;
+
+    // Formatted identifiers by declaration key. Resolved declarations are new objects on every
+    // resolution, so the key is derived from the declaration rather than its identity; keys never
+    // reference AST nodes, which would keep whole compilation units alive. Lookups do not lock, since
+    // every worker formats identifiers for every call.
+    private static final ClockCache<String> identifierCache = new ClockCache<>(MAX_CACHED_IDENTIFIERS);
+
+    private MethodIdentifiers() {
+    }
+
+    public static String formatMethodIdentifier(ResolvedMethodDeclaration method) {
+        String key = cacheKey(method);
+        String identifier = key != null ? identifierCache.get(key) : null;
+        if (identifier == null) {
+            identifier = buildMethodIdentifier(method);
+            if (key != null) {
+                identifierCache.put(key, identifier);
+            }
+        }
+        return identifier;
+    }
+
+    public static String formatConstructorIdentifier(ResolvedConstructorDeclaration constructor) {
+        String key = cacheKey(constructor);
+        String identifier = key != null ? identifierCache.get(key) : null;
+        if (identifier == null) {
+            identifier = buildConstructorIdentifier(constructor);
+            if (key != null) {
+                identifierCache.put(key, identifier);
+            }
+        }
+        return identifier;
+    }
+
+    private static String buildMethodIdentifier(ResolvedMethodDeclaration method) {
+        StringBuilder identifier = new StringBuilder();
+        // Get full package and class name from qualified name
+        String qualifiedName = method.getQualifiedName();
+        // Replace the last dot with double colon
+        identifier.append(qualifiedName, 0, qualifiedName.lastIndexOf('.'))
+                 .append("::")
+                 .append(method.getName());
+        appendParameterTypes(identifier, method);
+        return identifier.toString();
+    }
+
+    private static String buildConstructorIdentifier(ResolvedConstructorDeclaration constructor) {
+        StringBuilder identifier = new StringBuilder();
+        String className = constructor.getClassName();
+
+        // Format as package.ClassName::ClassName()
+        identifier.append(constructor.getPackageName())
+                 .append('.')
+                 .append(className)
+                 .append("::")
+                 .append(className);
+        appendParameterTypes(identifier, constructor);
+        return identifier.toString();
+    }
+
+    private static void appendParameterTypes(StringBuilder identifier, ResolvedMethodLikeDeclaration declaration) {
+        identifier.append('(');
+        int params = declaration.getNumberOfParams();
+        for (int i = 0; i < params; i++) {
+            if (i > 0) {
+                identifier.append(", ");
+            }
+            appendSimpleTypeName(identifier, declaration.getParam(i).getType().describe());
+        }
+        identifier.append(')');
+    }
+
+    // Source declarations are keyed by their AST identifier, which needs no type resolution.
+    // Library methods are keyed by their JVM descriptor; library constructors are not cached
+    // because computing a key would cost as much as formatting them.
+    private static String cacheKey(ResolvedMethodLikeDeclaration declaration) {
+        try {
+            Optional<Node> node = declaration.toAst();
+            if (node.isPresent()) {
+                if (isDeclaredInCode(node.get())) {
+                    return null;
+                }
+                if (node.get() instanceof MethodDeclaration) {
+                    return "src:" + methodIdentifier((MethodDeclaration) node.get());
+                }
+                if (node.get() instanceof ConstructorDeclaration) {
+                    return "src:" + constructorIdentifier((ConstructorDeclaration) node.get());
+                }
+                return null;
+            }
+            if (declaration instanceof ResolvedMethodDeclaration) {
+                return "lib:" + declaration.getQualifiedName() + ((ResolvedMethodDeclaration) declaration).toDescriptor();
+            }
+        } catch (RuntimeException e) {
+            // Some declarations cannot describe themselves; they are formatted without caching
+        }
+        return null;
+    }
+
+    // Same format as formatMethodIdentifier, computed from the declaration itself without the symbol solver
+    public static String methodIdentifier(MethodDeclaration n) {
+        return getQualifiedClassName(n) + "::" + n.getNameAsString() + formatParameters(n);
+    }
+
+    // Same format as formatConstructorIdentifier, computed from the declaration itself without the symbol solver
+    public static String constructorIdentifier(ConstructorDeclaration n) {
+        String className = getClassName(n);
+        return getPackageName(n) + "." + className + "::" + className + formatParameters(n);
+    }
+
+    // Identifier for code that runs outside any method, i.e. initializer blocks and field initializers
+    public static String initializerIdentifier(Node n, boolean isStatic) {
+        return getQualifiedClassName(n) + "::" + (isStatic ? "<clinit>" : "<init>") + "()";
+    }
+
+    // Members of anonymous classes, enum constant bodies and local classes, whose AST identifier is
+    // the same as that of a member of the enclosing type with the same signature
+    private static boolean isDeclaredInCode(Node n) {
+        Node current = n.getParentNode().orElse(null);
+        while (current != null) {
+            if (current instanceof Expression || current instanceof Statement || current instanceof EnumConstantDeclaration) {
+                return true;
+            }
+            current = current.getParentNode().orElse(null);
+        }
+        return false;
+    }
+
+    // Members of anonymous classes and enum constant bodies are attributed to the member that declares them
+    static boolean isAnonymousMember(Node n) {
+        return n.getParentNode()
+            .map(parent -> parent instanceof ObjectCreationExpr || parent instanceof EnumConstantDeclaration)
+            .orElse(false);
+    }
+
+    private static String formatParameters(CallableDeclaration<?> n) {
+        List<String> paramTypes = new ArrayList<>();
+        for (Parameter param : n.getParameters()) {
+            String type = param.getType().asString() + (param.isVarArgs() ? "[]" : "");
+            paramTypes.add(simplifyTypeName(type));
+        }
+        return "(" + String.join(", ", paramTypes) + ")";
+    }
+
+    private static String getQualifiedClassName(Node n) {
+        String packageName = getPackageName(n);
+        String className = getClassName(n);
+        return packageName.isEmpty() ? className : packageName + "." + className;
+    }
+
+    private static String getPackageName(Node n) {
+        return n.findCompilationUnit()
+            .flatMap(CompilationUnit::getPackageDeclaration)
+            .map(pkg -> pkg.getNameAsString())
+            .orElse("");
+    }
+
+    // Nested type names joined with dots, outermost first, e.g. "Outer.Inner"
+    private static String getClassName(Node n) {
+        StringBuilder className = new StringBuilder();
+        Node current = n.getParentNode().orElse(null);
+        while (current != null) {
+            if (current instanceof TypeDeclaration) {
+                String name = ((TypeDeclaration<?>) current).getNameAsString();
+                className.insert(0, className.length() > 0 ? name + "." : name);
+            }
+            current = current.getParentNode().orElse(null);
+        }
+        return className.toString();
+    }
+
+    // Extract class names from full type while preserving generics
+    // Remove spaces within generic type parameters
+    static String simplifyTypeName(String type) {
+        StringBuilder simplified = new StringBuilder(type.length());
+        appendSimpleTypeName(simplified, type);
+        return simplified.toString();
+    }
+
+    // Single pass equivalent of replacing ([a-zA-Z0-9_]+\.)+([a-zA-Z0-9_]+) with its last segment and
+    // then removing all whitespace: each dotted name keeps only the part after its last dot
+    private static void appendSimpleTypeName(StringBuilder out, String type) {
+        int length = type.length();
+        int i = 0;
+        while (i < length) {
+            char c = type.charAt(i);
+            if (!isNameChar(c)) {
+                if (!isWhitespace(c)) {
+                    out.append(c);
+                }
+                i++;
+                continue;
+            }
+            int segmentStart = i;
+            int end = skipName(type, i);
+            // A dot only continues the name when another name segment follows it
+            while (end + 1 < length && type.charAt(end) == '.' && isNameChar(type.charAt(end + 1))) {
+                segmentStart = end + 1;
+                end = skipName(type, segmentStart);
+            }
+            out.append(type, segmentStart, end);
+            i = end;
+        }
+    }
+
+    private static int skipName(String type, int i) {
+        while (i < type.length() && isNameChar(type.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    // The characters matched by \s without UNICODE_CHARACTER_CLASS
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\013' || c == '\f' || c == '\r';
+    }
+}
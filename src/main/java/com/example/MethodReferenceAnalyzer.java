@@ -1,20 +1,20 @@
 package com.example;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.apache.maven.model.Model;
 import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
@@ -23,9 +23,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
 import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.InitializerDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.expr.LambdaExpr;
 import com.github.javaparser.ast.expr.MethodCallExpr;
@@ -36,29 +41,39 @@ import com.github.javaparser.resolution.declarations.ResolvedConstructorDeclarat
 import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
 import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JarTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
 
 public class MethodReferenceAnalyzer {
     private static final Logger logger = LoggerFactory.getLogger(MethodReferenceAnalyzer.class);
-    private static final JavaParser javaParser = new JavaParser(new ParserConfiguration());
+    private static JavaParser javaParser = new JavaParser(new ParserConfiguration());
     private static final Map<String, ConstructorInfo> constructorDefinitions = new HashMap<>();
-    private static final List<MethodReferenceInfo> methodReferences = new ArrayList<>();
+    // References are kept column-wise with interned strings; MethodReferenceInfo objects are only
+    // created on demand for callers that ask for them
+    private static final SymbolTable symbols = new SymbolTable();
+    private static ReferenceTable methodReferences = new HeapReferenceTable();
+    private static final ResolutionCache resolutionCache = ResolutionCache.getShared();
+    private static final AnalyzerMetrics metrics = AnalyzerMetrics.getShared();
+    private static final ResolutionDiagnostics diagnostics = ResolutionDiagnostics.getShared();
+    private static CombinedTypeSolver typeSolver;
     private static JavaParserFacade symbolSolver;
-    private static PrintWriter outputWriter;
     private static String neo4jUri;
 
     public static void main(String[] args) {
         System.out.println("Starting application..."); // Temporary debug print
         
-        if (args.length < 2) {
-            System.out.println("Please provide: <project_path> <neo4j_uri>");
+        if (args.length < 1) {
+            System.out.println("Please provide: <project_path> [<neo4j_uri>] [--batch-size N] [--neo4j-transactions N] [--neo4j-pending-batches N] [--jsonl FILE] [--incremental] [--stream-output] [--low-memory] [--off-heap] [--off-heap-dir DIR]");
             return;
         }
 
         String projectPath = args[0];
-        neo4jUri = args[1];
+        // Without a Neo4j URI only the result files are written
+        boolean hasNeo4jUri = args.length > 1 && !args[1].startsWith("--");
+        AnalyzerOptions options = AnalyzerOptions.parse(args, hasNeo4jUri ? 2 : 1);
+        if (hasNeo4jUri) {
+            options.neo4jUri = args[1];
+        }
+        neo4jUri = options.getNeo4jUri();
 
         try {
             // Create logs directory if it doesn't exist
@@ -75,125 +90,59 @@ public class MethodReferenceAnalyzer {
                 logger.info("Deleted old log file: {}", logFile);
             }
 
-            // Initialize Neo4j driver
-            Neo4jReferenceWriter.initialize(neo4jUri);
-
-            // Create output file
-            outputWriter = new PrintWriter("method-references.txt");
-            outputWriter.println("Method Reference Analysis Results");
-            outputWriter.println("================================");
-            outputWriter.println();
-
-            analyzeProject(projectPath);
-
-            // Write summary
-            outputWriter.println("\nSummary");
-            outputWriter.println("=======");
-            outputWriter.println("Total method references found: " + methodReferences.size());
-            outputWriter.println("Total constructor definitions found: " + constructorDefinitions.size());
-            outputWriter.println("\nMethod References:");
-            outputWriter.println("=================");
-            for (MethodReferenceInfo ref : methodReferences) {
-                outputWriter.println(ref);
-            }
+            metrics.reset();
+            diagnostics.reset();
+            AnalyzerMetrics.registerMBean();
 
-            outputWriter.close();
-            Neo4jReferenceWriter.closeDriver();
-            logger.info("Analysis complete. Results written to method-references.txt and Neo4j");
+            if (options.isStreamOutput()) {
+                StreamingResultWriter resultWriter = new StreamingResultWriter(Paths.get("method-references.txt"), null);
+                try (ReferenceSink sink = ReferenceAnalyzerMain.openSinks(resultWriter, options)) {
+                    analyzeProject(projectPath, options, sink);
+                }
+            } else {
+                setReferenceTable(ReferenceTable.create(options, "method-references"));
+                try {
+                    MethodReferenceAnalyzer analyzer = new MethodReferenceAnalyzer();
+                    try (ReferenceSink sink = ReferenceAnalyzerMain.openSinks(new AnalyzerReferenceSink(analyzer, null), options)) {
+                        analyzeProject(projectPath, options, sink);
+                    }
+                    analyzer.writeResultsToFile("method-references.txt");
+                } finally {
+                    setReferenceTable(new HeapReferenceTable());
+                }
+            }
+            logger.info("Analysis complete. Results written to method-references.txt{}", neo4jUri != null ? " and Neo4j" : "");
+            metrics.writeJsonReport(Paths.get("analyzer-metrics.json"));
+            diagnostics.writeReport(Paths.get("unresolved-references.json"));
         } catch (Exception e) {
             logger.error("Error analyzing project", e);
         }
     }
 
-    private static void analyzeProject(String projectPath) throws IOException, XmlPullParserException {
+    private static void analyzeProject(String projectPath, AnalyzerOptions options, ReferenceSink sink)
+            throws IOException, XmlPullParserException {
         System.out.println("Starting analyzeProject for: " + projectPath); // Debug print
         logger.debug("Starting analyzeProject for: {}", projectPath);
         
-        // Run delombok using Maven
-        logger.info("Running delombok on project: {}", projectPath);
-        System.out.println("About to run delombok..."); // Debug print
-        
-        try {
-            // Find lombok jar in local maven repository
-            String lombokJar = System.getProperty("user.home") + "/.m2/repository/org/projectlombok/lombok/1.18.30/lombok-1.18.30.jar";
-            System.out.println("Looking for lombok jar at: " + lombokJar); // Debug print
-            logger.debug("Looking for lombok jar at: {}", lombokJar);
-            
-            if (!Files.exists(Paths.get(lombokJar))) {
-                String error = "Lombok jar not found at: " + lombokJar;
-                System.out.println(error); // Debug print
-                logger.error(error);
-                throw new RuntimeException(error);
-            }
-            System.out.println("Found lombok jar"); // Debug print
-
-            ProcessBuilder processBuilder = new ProcessBuilder(
-                "java", "-jar", lombokJar, "delombok",
-                "-n", // Skip dependency resolution
-                "-d", "target/delombok",
-                "src/main/java"
-            );
-            System.out.println("Created process builder with command: " + String.join(" ", processBuilder.command())); // Debug print
-            processBuilder.directory(new File(projectPath));
-            Process process = processBuilder.start();
-            
-            // Read both output and error streams
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-                 BufferedReader errorReader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
-                
-                // Read standard output
-                String line;
-                System.out.println("Reading Maven output..."); // Debug print
-                while ((line = reader.readLine()) != null) {
-                    System.out.println("Maven output: " + line); // Debug print
-                    logger.info("Maven output: {}", line);
-                }
-                
-                // Read error output
-                System.out.println("Reading Maven errors..."); // Debug print
-                while ((line = errorReader.readLine()) != null) {
-                    System.out.println("Maven error: " + line); // Debug print
-                    logger.error("Maven error: {}", line);
-                }
-            }
-            
-            int exitCode = process.waitFor();
-            System.out.println("Maven process exited with code: " + exitCode); // Debug print
-            if (exitCode != 0) {
-                String error = "Maven process failed with exit code: " + exitCode;
-                System.out.println(error); // Debug print
-                logger.error(error);
-                throw new RuntimeException(error);
-            }
-            System.out.println("Delombok completed successfully"); // Debug print
-            logger.info("Delombok completed successfully");
-        } catch (InterruptedException e) {
-            logger.error("Delombok process was interrupted", e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Delombok process was interrupted", e);
-        }
-
         // Read pom.xml
         MavenXpp3Reader reader = new MavenXpp3Reader();
         Model model = reader.read(new FileInputStream(new File(projectPath, "pom.xml")));
-        
-        // Get source directory - use delombok output if available
-        String sourceDir = "target/delombok";
-        if (!Files.exists(Paths.get(projectPath, sourceDir))) {
-            sourceDir = model.getBuild() != null && model.getBuild().getSourceDirectory() != null
-                    ? model.getBuild().getSourceDirectory()
-                    : "src/main/java";
-            logger.info("Using original source directory: {}", sourceDir);
-        } else {
-            logger.info("Using delombok output directory: {}", sourceDir);
-        }
 
-        Path sourcePath = Paths.get(projectPath, sourceDir);
-        if (!Files.exists(sourcePath)) {
-            logger.error("Source directory not found: {}", sourcePath);
+        String sourceDir = model.getBuild() != null && model.getBuild().getSourceDirectory() != null
+                ? model.getBuild().getSourceDirectory()
+                : "src/main/java";
+        Path originalSourcePath = Paths.get(projectPath, sourceDir);
+        if (!Files.exists(originalSourcePath)) {
+            logger.error("Source directory not found: {}", originalSourcePath);
             return;
         }
 
+        // Analyze the delombok output when the project uses Lombok
+        long delombokStart = System.nanoTime();
+        Path sourcePath = DelombokStage.run(projectPath, model, originalSourcePath);
+        metrics.recordPhase(AnalyzerMetrics.Phase.DELOMBOK, delombokStart);
+        logger.info("Using source directory: {}", sourcePath);
+
         // Initialize symbol solver with more comprehensive type solvers
         CombinedTypeSolver typeSolver = new CombinedTypeSolver();
         
@@ -202,83 +151,75 @@ public class MethodReferenceAnalyzer {
         logger.debug("Added ReflectionTypeSolver");
         
         // Add JavaParser type solver for project source code
-        typeSolver.add(new JavaParserTypeSolver(sourcePath));
+        typeSolver.add(options.getMemoryProfile().sourceSolver(sourcePath));
         logger.debug("Added JavaParserTypeSolver for source path: {}", sourcePath);
         
-        // Add type solvers for project dependencies
-        if (model.getDependencies() != null) {
-            for (org.apache.maven.model.Dependency dependency : model.getDependencies()) {
-                try {
-                    String groupId = dependency.getGroupId();
-                    String artifactId = dependency.getArtifactId();
-                    String version = dependency.getVersion();
-                    
-                    // Try to find the JAR in the local Maven repository
-                    String localRepoPath = System.getProperty("user.home") + "/.m2/repository";
-                    String jarPath = String.format("%s/%s/%s/%s/%s-%s.jar",
-                        localRepoPath,
-                        groupId.replace('.', '/'),
-                        artifactId,
-                        version,
-                        artifactId,
-                        version);
-                    
-                    if (Files.exists(Paths.get(jarPath))) {
-                        typeSolver.add(new JarTypeSolver(jarPath));
-                        logger.debug("Added JarTypeSolver for dependency: {}:{}:{} at {}", 
-                            groupId, artifactId, version, jarPath);
-                    } else {
-                        logger.warn("JAR not found for dependency: {}:{}:{} at {}", 
-                            groupId, artifactId, version, jarPath);
-                    }
-                } catch (Exception e) {
-                    logger.warn("Could not add type solver for dependency: {}:{}:{}", 
-                        dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion());
-                    logger.debug("Dependency error details:", e);
-                }
-            }
-        }
+        // Add type solvers for project dependencies; jars are opened when one of their classes is needed
+        List<String> dependencyJars = MavenClasspath.resolve(Paths.get(projectPath), model);
+        ClassJarIndex classIndex = ClassJarIndex.load(IncrementalAnalysis.manifestPath(projectPath, "class-index"), dependencyJars);
+        typeSolver.add(new LazyJarTypeSolver(classIndex));
+        logger.debug("Added LazyJarTypeSolver for {} dependency jars", dependencyJars.size());
         
+        MethodReferenceAnalyzer.typeSolver = typeSolver;
         symbolSolver = JavaParserFacade.get(typeSolver);
+        javaParser = new JavaParser(options.getMemoryProfile().parserConfiguration());
+        resolutionCache.clear();
         logger.debug("Initialized JavaParserFacade with type solver");
 
-        // First pass: collect all method and constructor definitions
-        Files.walk(sourcePath)
-                .filter(path -> path.toString().endsWith(".java"))
-                .forEach(path -> {
-                    try {
-                        collectDefinitions(path);
-                    } catch (IOException e) {
-                        logger.error("Error collecting definitions: " + path, e);
-                    }
-                });
-
-        // Second pass: analyze method references
-        Files.walk(sourcePath)
-                .filter(path -> path.toString().endsWith(".java"))
-                .forEach(path -> {
-                    try {
-                        analyzeJavaFile(path);
-                    } catch (IOException e) {
-                        logger.error("Error analyzing file: " + path, e);
-                    }
-                });
-    }
-
-    private static void collectDefinitions(Path filePath) throws IOException {
-        javaParser.parse(filePath).ifSuccessful(cu -> {
-            DefinitionCollector collector = new DefinitionCollector(filePath);
-            collector.visit(cu, null);
-        });
+        long walkStart = System.nanoTime();
+        List<Path> javaFiles;
+        try (Stream<Path> paths = Files.walk(sourcePath)) {
+            javaFiles = paths.filter(path -> path.toString().endsWith(".java")).collect(Collectors.toList());
+        }
+        metrics.recordPhase(AnalyzerMetrics.Phase.WALK, walkStart);
+
+        if (options.isIncremental()) {
+            // Unchanged files are replayed from the manifest; Neo4jReferenceSink skips them, their references were
+            // written by an earlier run
+            String configurationKey = String.join(File.pathSeparator, dependencyJars);
+            IncrementalAnalysis incremental = IncrementalAnalysis.load(
+                IncrementalAnalysis.manifestPath(projectPath, "method-references"), sourcePath, configurationKey);
+            incremental.analyze(javaFiles,
+                (files, consumer) -> files.forEach(path -> consumer.accept(analyzeJavaFile(path, true))),
+                references -> references.replay(sink));
+        } else {
+            for (Path path : javaFiles) {
+                analyzeJavaFile(path, false).replay(sink);
+            }
+        }
+        logger.info("Resolution cache: {}", resolutionCache);
     }
 
-    private static void analyzeJavaFile(Path filePath) throws IOException {
+    private static FileReferences analyzeJavaFile(Path filePath, boolean withSignature) {
         logger.info("Analyzing file: {}", filePath);
-        
-        javaParser.parse(filePath).ifSuccessful(cu -> {
-            MethodReferenceVisitor methodVisitor = new MethodReferenceVisitor(filePath);
-            methodVisitor.visit(cu, null);
-        });
+        long fileStart = System.nanoTime();
+        FileReferences references = new FileReferences(filePath);
+
+        try {
+            // Single pass: every file is parsed once, then both visitors run over the same tree
+            long parseStart = System.nanoTime();
+            ParseResult<CompilationUnit> result = javaParser.parse(filePath);
+            metrics.recordPhase(AnalyzerMetrics.Phase.PARSE, parseStart);
+            result.ifSuccessful(cu -> {
+                // The reference pass does not depend on definitions from other files, so both run per file
+                long definitionsStart = System.nanoTime();
+                DefinitionCollector collector = new DefinitionCollector(filePath, references);
+                collector.visit(cu, null);
+                metrics.recordPhase(AnalyzerMetrics.Phase.DEFINITIONS, definitionsStart);
+
+                MethodReferenceVisitor methodVisitor = new MethodReferenceVisitor(filePath, references);
+                methodVisitor.visit(cu, null);
+
+                if (withSignature) {
+                    references.setSignature(FileSignature.of(cu));
+                }
+            });
+        } catch (IOException e) {
+            logger.error("Error analyzing file: " + filePath, e);
+            references.markFailed();
+        }
+        metrics.recordFile(fileStart);
+        return references;
     }
 
     private static class ConstructorInfo {
@@ -319,20 +260,18 @@ public class MethodReferenceAnalyzer {
 
         @Override
         public String toString() {
-            StringBuilder sb = new StringBuilder();
-            sb.append("Type: ").append(type).append("\n");
-            sb.append("Reference: ").append(reference).append("\n");
-            sb.append("Location: ").append(filePath).append(":").append(lineNumber).append("\n");
-            return sb.toString();
+            return formatMethodReference(type, reference, filePath, lineNumber);
         }
     }
 
     private static class DefinitionCollector extends VoidVisitorAdapter<Void> {
         private final Path filePath;
+        private final FileReferences references;
         private String currentClassName;
 
-        DefinitionCollector(Path filePath) {
+        DefinitionCollector(Path filePath, FileReferences references) {
             this.filePath = filePath;
+            this.references = references;
         }
 
         @Override
@@ -351,16 +290,18 @@ public class MethodReferenceAnalyzer {
         @Override
         public void visit(ConstructorDeclaration n, Void arg) {
             super.visit(n, arg);
-            String key = currentClassName + ".constructor";
-            constructorDefinitions.put(key, new ConstructorInfo(currentClassName, filePath, n.getBegin().get().line, false));
+            references.addConstructorDefinition(currentClassName, n.getBegin().get().line);
         }
     }
 
     private static class MethodReferenceVisitor extends VoidVisitorAdapter<Void> {
         private final Path filePath;
+        private final FileReferences references;
+        private final Deque<String> enclosingMembers = new ArrayDeque<>();
 
-        MethodReferenceVisitor(Path filePath) {
+        MethodReferenceVisitor(Path filePath, FileReferences references) {
             this.filePath = filePath;
+            this.references = references;
         }
 
         private String getFullClassName(ClassOrInterfaceDeclaration n) {
@@ -374,82 +315,55 @@ public class MethodReferenceAnalyzer {
             return packageName.isEmpty() ? className : packageName + "." + className;
         }
 
-        private String formatMethodIdentifier(ResolvedMethodDeclaration method) {
-            StringBuilder identifier = new StringBuilder();
-            // Get full package and class name from qualified name
-            String qualifiedName = method.getQualifiedName();
-            // Replace the last dot with double colon
-            identifier.append(qualifiedName.substring(0, qualifiedName.lastIndexOf('.')))
-                     .append("::")
-                     .append(method.getName());
-            
-            // Add parameter types
-            identifier.append("(");
-            String paramTypes = method.getNumberOfParams() > 0 ? 
-                IntStream.range(0, method.getNumberOfParams())
-                    .mapToObj(i -> {
-                        String type = method.getParam(i).getType().describe();
-                        // Extract class names from full type while preserving generics
-                        // Remove spaces within generic type parameters
-                        return type.replaceAll("([a-zA-Z0-9_]+\\.)+([a-zA-Z0-9_]+)", "$2")
-                                 .replaceAll("\\s+", "");
-                    })
-                    .collect(Collectors.joining(", ")) : 
-                "";
-            identifier.append(paramTypes);
-            identifier.append(")");
-            
-            return identifier.toString();
+        private boolean isAdvancedSearchController() {
+            return filePath.toString().contains("AdvancedSearchController");
         }
 
-        private String formatConstructorIdentifier(ResolvedConstructorDeclaration constructor) {
-            StringBuilder identifier = new StringBuilder();
-            // Get full package and class name
-            String packageName = constructor.getPackageName();
-            String className = constructor.getClassName();
-            String fullClassName = packageName + "." + className;
-            
-            // Format as ClassName::ClassName()
-            identifier.append(fullClassName)
-                     .append("::")
-                     .append(className)
-                     .append("(");
-            
-            // Add parameter types
-            String paramTypes = constructor.getNumberOfParams() > 0 ? 
-                IntStream.range(0, constructor.getNumberOfParams())
-                    .mapToObj(i -> {
-                        String type = constructor.getParam(i).getType().describe();
-                        // Extract class names from full type while preserving generics
-                        // Remove spaces within generic type parameters
-                        return type.replaceAll("([a-zA-Z0-9_]+\\.)+([a-zA-Z0-9_]+)", "$2")
-                                 .replaceAll("\\s+", "");
-                    })
-                    .collect(Collectors.joining(", ")) : 
-                "";
-            identifier.append(paramTypes);
-            identifier.append(")");
-            
-            return identifier.toString();
+        private void visitMember(Node n, String identifier, Runnable visitChildren) {
+            if (MethodIdentifiers.isAnonymousMember(n)) {
+                visitChildren.run();
+                return;
+            }
+            enclosingMembers.push(identifier);
+            try {
+                visitChildren.run();
+            } finally {
+                enclosingMembers.pop();
+            }
         }
 
-        private boolean isAdvancedSearchController() {
-            return filePath.toString().contains("AdvancedSearchController");
+        @Override
+        public void visit(ConstructorDeclaration n, Void arg) {
+            visitMember(n, MethodIdentifiers.constructorIdentifier(n), () -> super.visit(n, arg));
+        }
+
+        @Override
+        public void visit(InitializerDeclaration n, Void arg) {
+            visitMember(n, MethodIdentifiers.initializerIdentifier(n, n.isStatic()), () -> super.visit(n, arg));
+        }
+
+        @Override
+        public void visit(FieldDeclaration n, Void arg) {
+            visitMember(n, MethodIdentifiers.initializerIdentifier(n, n.isStatic()), () -> super.visit(n, arg));
         }
 
         @Override
         public void visit(ObjectCreationExpr n, Void arg) {
             super.visit(n, arg);
             try {
-                ResolvedConstructorDeclaration constructor = symbolSolver.solve(n).getCorrespondingDeclaration();
-                String constructorIdentifier = formatConstructorIdentifier(constructor);
-                methodReferences.add(new MethodReferenceInfo(constructorIdentifier, filePath, n.getBegin().get().line, "Constructor Call"));
-                // Add Neo4j reference using createMethodReference since constructors are stored as methods
-                Neo4jReferenceWriter writer = new Neo4jReferenceWriter(filePath, n.getBegin().get().line);
-                writer.createMethodReference(constructorIdentifier);
+                ResolutionCache.ResolvedTarget constructor = resolutionCache.resolve(n, symbolSolver);
+                if (constructor == null) {
+                    metrics.recordResolution("Constructor Call", false);
+                    diagnostics.record("Constructor Call", ResolutionDiagnostics.Cause.NO_MATCHING_DECLARATION,
+                        n.getType().getNameAsString(), filePath, n.getBegin().get().line, n.getType().getNameAsString());
+                    return;
+                }
+                String constructorIdentifier = constructor.getIdentifier();
+                references.addMethodReference(constructorIdentifier, n.getBegin().get().line, "Constructor Call", enclosingMembers.peek());
+                metrics.recordResolution("Constructor Call", true);
             } catch (Exception e) {
-                logger.warn("Could not resolve constructor call: {} in {}:{}", 
-                    n.toString(), filePath, n.getBegin().get().line);
+                metrics.recordResolution("Constructor Call", false);
+                diagnostics.record("Constructor Call", e, filePath, n.getBegin().get().line, n.getType().getNameAsString());
             }
         }
 
@@ -459,7 +373,7 @@ public class MethodReferenceAnalyzer {
                 logger.info("Visiting method in AdvancedSearchController: {} at line {}", 
                     n.getNameAsString(), n.getBegin().get().line);
             }
-            super.visit(n, arg);
+            visitMember(n, MethodIdentifiers.methodIdentifier(n), () -> super.visit(n, arg));
         }
 
         @Override
@@ -472,23 +386,23 @@ public class MethodReferenceAnalyzer {
             super.visit(n, arg);
             try {
                 logger.debug("Attempting to resolve method call: {} in {}:{}", 
-                    n.toString(), filePath, n.getBegin().get().line);
+                    n.getNameAsString(), filePath, n.getBegin().get().line);
                 
                 // Special logging for AdvancedSearchUtils.scriptDataOutputToXml
-                if (n.toString().contains("scriptDataOutputToXml")) {
+                if (n.getNameAsString().equals("scriptDataOutputToXml")) {
                     logger.info("Found potential scriptDataOutputToXml call: {} in {}:{}", 
                         n.toString(), filePath, n.getBegin().get().line);
                 }
                 
-                var resolvedMethod = symbolSolver.solve(n);
-                if (!resolvedMethod.isSolved()) {
-                    logger.warn("Could not resolve method call: {} in {}:{}", 
-                        n.toString(), filePath, n.getBegin().get().line);
+                ResolutionCache.ResolvedTarget method = resolutionCache.resolve(n, symbolSolver);
+                if (method == null) {
+                    metrics.recordResolution("Method Call", false);
+                    diagnostics.record("Method Call", ResolutionDiagnostics.Cause.NO_MATCHING_DECLARATION, n.getNameAsString(),
+                        filePath, n.getBegin().get().line, n.getNameAsString());
                     return;
                 }
                 
-                ResolvedMethodDeclaration method = resolvedMethod.getCorrespondingDeclaration();
-                String methodIdentifier = formatMethodIdentifier(method);
+                String methodIdentifier = method.getIdentifier();
                 
                 // Special logging for AdvancedSearchUtils.scriptDataOutputToXml
                 if (methodIdentifier.contains("scriptDataOutputToXml")) {
@@ -505,14 +419,12 @@ public class MethodReferenceAnalyzer {
                     logger.debug("Found instance method call: {}", methodIdentifier);
                 }
                 
-                methodReferences.add(new MethodReferenceInfo(methodIdentifier, filePath, n.getBegin().get().line, type));
-                
-                // Add Neo4j reference
-                Neo4jReferenceWriter writer = new Neo4jReferenceWriter(filePath, n.getBegin().get().line);
-                writer.createMethodReference(methodIdentifier);
+                references.addMethodReference(methodIdentifier, n.getBegin().get().line, type, enclosingMembers.peek());
+                // Counted under the same kind as failures, which cannot tell static from instance calls
+                metrics.recordResolution("Method Call", true);
             } catch (Exception e) {
-                logger.warn("Could not resolve method call: {} in {}:{}", 
-                    n.toString(), filePath, n.getBegin().get().line);
+                metrics.recordResolution("Method Call", false);
+                diagnostics.record("Method Call", e, filePath, n.getBegin().get().line, n.getNameAsString());
                 logger.debug("Resolution error details:", e);
             }
         }
@@ -526,8 +438,14 @@ public class MethodReferenceAnalyzer {
             
             super.visit(n, arg);
             try {
-                ResolvedMethodDeclaration method = symbolSolver.solve(n).getCorrespondingDeclaration();
-                String methodIdentifier = formatMethodIdentifier(method);
+                long resolveStart = System.nanoTime();
+                ResolvedMethodDeclaration method;
+                try {
+                    method = symbolSolver.solve(n).getCorrespondingDeclaration();
+                } finally {
+                    metrics.recordPhase(AnalyzerMetrics.Phase.RESOLUTION, resolveStart);
+                }
+                String methodIdentifier = MethodIdentifiers.formatMethodIdentifier(method);
                 String type;
                 
                 // Check if this is a static method reference
@@ -539,13 +457,11 @@ public class MethodReferenceAnalyzer {
                     logger.debug("Found instance method reference: {}", methodIdentifier);
                 }
                 
-                methodReferences.add(new MethodReferenceInfo(methodIdentifier, filePath, n.getBegin().get().line, type));
-                // Add Neo4j reference
-                Neo4jReferenceWriter writer = new Neo4jReferenceWriter(filePath, n.getBegin().get().line);
-                writer.createMethodReference(methodIdentifier);
+                references.addMethodReference(methodIdentifier, n.getBegin().get().line, type, enclosingMembers.peek());
+                metrics.recordResolution("Method Reference", true);
             } catch (Exception e) {
-                logger.warn("Could not resolve method reference: {} in {}:{}", 
-                    n.toString(), filePath, n.getBegin().get().line);
+                metrics.recordResolution("Method Reference", false);
+                diagnostics.record("Method Reference", e, filePath, n.getBegin().get().line, n.getIdentifier());
             }
         }
 
@@ -562,36 +478,111 @@ public class MethodReferenceAnalyzer {
                     var expr = n.getBody().asExpressionStmt().getExpression();
                     if (expr.isMethodCallExpr()) {
                         var methodCall = expr.asMethodCallExpr();
-                        ResolvedMethodDeclaration method = symbolSolver.solve(methodCall).getCorrespondingDeclaration();
-                        String methodIdentifier = formatMethodIdentifier(method);
-                        methodReferences.add(new MethodReferenceInfo(methodIdentifier, filePath, n.getBegin().get().line, "Lambda Method Call"));
-                        // Add Neo4j reference
-                        Neo4jReferenceWriter writer = new Neo4jReferenceWriter(filePath, n.getBegin().get().line);
-                        writer.createMethodReference(methodIdentifier);
+                        ResolutionCache.ResolvedTarget method = resolutionCache.resolve(methodCall, symbolSolver);
+                        if (method == null) {
+                            metrics.recordResolution("Lambda Method Call", false);
+                            diagnostics.record("Lambda Method Call", ResolutionDiagnostics.Cause.NO_MATCHING_DECLARATION,
+                                methodCall.getNameAsString(), filePath, n.getBegin().get().line, methodCall.getNameAsString());
+                            return;
+                        }
+                        String methodIdentifier = method.getIdentifier();
+                        references.addMethodReference(methodIdentifier, n.getBegin().get().line, "Lambda Method Call", enclosingMembers.peek());
+                        metrics.recordResolution("Lambda Method Call", true);
                     }
                 }
             } catch (Exception e) {
-                logger.warn("Could not resolve lambda method call: {} in {}:{}", 
-                    n.toString(), filePath, n.getBegin().get().line);
+                metrics.recordResolution("Lambda Method Call", false);
+                diagnostics.record("Lambda Method Call", e, filePath, n.getBegin().get().line, "lambda");
             }
         }
     }
 
     public void addMethodReference(String qualifiedName, Path filePath, int lineNumber) {
-        methodReferences.add(new MethodReferenceInfo(qualifiedName, filePath, lineNumber, "Method Call"));
+        addReference(qualifiedName, filePath, lineNumber, "Method Call", null);
+    }
+
+    public void addMethodReference(String reference, Path filePath, int lineNumber, String type) {
+        addReference(reference, filePath, lineNumber, type, null);
+    }
+
+    // The source is the identifier of the member containing the reference, or null when unknown
+    public void addMethodReference(String reference, Path filePath, int lineNumber, String type, String source) {
+        addReference(reference, filePath, lineNumber, type, source);
+    }
+
+    public void addConstructorDefinition(String className, Path filePath, int lineNumber) {
+        String key = className + ".constructor";
+        constructorDefinitions.put(key, new ConstructorInfo(className, filePath, lineNumber, false));
     }
 
     public void addConstructorReference(String className, Path filePath, int lineNumber) {
-        String constructorIdentifier = className + "::" + className + "()";
-        methodReferences.add(new MethodReferenceInfo(constructorIdentifier, filePath, lineNumber, "Constructor Call"));
+        addReference(constructorReference(className), filePath, lineNumber, "Constructor Call", null);
     }
 
+    public void addConstructorReference(String className, Path filePath, int lineNumber, String source) {
+        addReference(constructorReference(className), filePath, lineNumber, "Constructor Call", source);
+    }
+
+    // The class name may be qualified; the constructor is named after the simple name, as in the
+    // identifiers of resolved constructors
+    static String constructorReference(String className) {
+        return className + "::" + className.substring(className.lastIndexOf('.') + 1) + "()";
+    }
+
+    static String formatMethodReference(String type, String reference, Path filePath, int lineNumber) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Type: ").append(type).append("\n");
+        sb.append("Reference: ").append(reference).append("\n");
+        sb.append("Location: ").append(filePath).append(":").append(lineNumber).append("\n");
+        return sb.toString();
+    }
+
+    private void addReference(String reference, Path filePath, int lineNumber, String type, String source) {
+        methodReferences.add(symbols.intern(reference), symbols.intern(filePath.toString()), lineNumber, symbols.intern(type),
+            source != null ? symbols.intern(source) : -1);
+    }
+
+    // The references and definitions are shared by all instances; a process that analyzes more than
+    // one project, like the analyzer daemon, clears them between analyses
+    static void clearResults() {
+        methodReferences.clear();
+        symbols.clear();
+        constructorDefinitions.clear();
+    }
+
+    // Stores the references of the following analyses in the given table, releasing the current one
+    static void setReferenceTable(ReferenceTable table) {
+        methodReferences.close();
+        methodReferences = table;
+    }
+
+    public int getMethodReferenceCount() {
+        return methodReferences.size();
+    }
+
+    // Read-only view over the stored references; each element is created when it is accessed
     public List<MethodReferenceInfo> getMethodReferences() {
-        return methodReferences;
+        return new AbstractList<MethodReferenceInfo>() {
+            @Override
+            public MethodReferenceInfo get(int index) {
+                return getMethodReference(index);
+            }
+
+            @Override
+            public int size() {
+                return methodReferences.size();
+            }
+        };
+    }
+
+    private static MethodReferenceInfo getMethodReference(int record) {
+        return new MethodReferenceInfo(symbols.get(methodReferences.getTarget(record)),
+            Paths.get(symbols.get(methodReferences.getFile(record))),
+            methodReferences.getLine(record), symbols.get(methodReferences.getKind(record)));
     }
 
     public List<String> getFormattedMethodReferences() {
-        return methodReferences.stream()
+        return getMethodReferences().stream()
                 .map(MethodReferenceInfo::toString)
                 .collect(Collectors.toList());
     }
@@ -600,6 +591,26 @@ public class MethodReferenceAnalyzer {
         return constructorDefinitions;
     }
 
+    // Call graph from the containing members to the referenced methods and constructors; references
+    // outside any member are left out
+    public ReferenceGraph buildReferenceGraph() {
+        ReferenceGraph.Builder graph = new ReferenceGraph.Builder();
+        for (int record = 0; record < methodReferences.size(); record++) {
+            int source = methodReferences.getSource(record);
+            if (source >= 0) {
+                graph.addEdge(symbols.get(source), symbols.get(methodReferences.getTarget(record)));
+            }
+        }
+        return graph.build();
+    }
+
+    public void addToIndex(ReferenceIndexWriter index) {
+        for (int record = 0; record < methodReferences.size(); record++) {
+            index.add(symbols.get(methodReferences.getTarget(record)), symbols.get(methodReferences.getFile(record)),
+                methodReferences.getLine(record), symbols.get(methodReferences.getKind(record)));
+        }
+    }
+
     public void writeResultsToFile(String outputPath) {
         try (PrintWriter writer = new PrintWriter(outputPath)) {
             writer.println("Method Reference Analysis Results");
@@ -612,8 +623,8 @@ public class MethodReferenceAnalyzer {
             writer.println("Total constructor definitions found: " + constructorDefinitions.size());
             writer.println("\nMethod References:");
             writer.println("=================");
-            for (MethodReferenceInfo ref : methodReferences) {
-                writer.println(ref);
+            for (int record = 0; record < methodReferences.size(); record++) {
+                writer.println(getMethodReference(record));
             }
         } catch (IOException e) {
             logger.error("Error writing results to file: " + outputPath, e);
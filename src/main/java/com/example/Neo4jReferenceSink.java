@@ -0,0 +1,33 @@
+package com.example;
+
+import java.nio.file.Path;
+
+// Writes method references to Neo4j as REFERENCES relationships between the containing member
+// and the referenced method. Owns the Neo4jReferenceWriter driver from construction until close.
+// Files replayed by an incremental run are skipped, their references were written when they were
+// last analyzed.
+public class Neo4jReferenceSink implements ReferenceSink {
+    private Neo4jReferenceWriter writer;
+
+    public Neo4jReferenceSink(String uri, AnalyzerOptions options) {
+        Neo4jReferenceWriter.initialize(uri, options.getNeo4jBatchSize(), options.getNeo4jTransactions(),
+            options.getNeo4jPendingBatches());
+    }
+
+    @Override
+    public void beginFile(Path filePath, boolean reused) {
+        writer = reused ? null : new Neo4jReferenceWriter(filePath);
+    }
+
+    @Override
+    public void methodReference(String reference, Path filePath, int lineNumber, String type, String source) {
+        if (writer != null) {
+            writer.createMethodReference(source, reference);
+        }
+    }
+
+    @Override
+    public void close() {
+        Neo4jReferenceWriter.closeDriver();
+    }
+}
@@ -3,95 +3,130 @@ package com.example;
 import org.neo4j.driver.Driver;
 import org.neo4j.driver.GraphDatabase;
 import org.neo4j.driver.Session;
-import org.neo4j.driver.Result;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import java.nio.file.Path;
 
 public class Neo4jReferenceWriter {
     private static final Logger logger = LoggerFactory.getLogger(Neo4jReferenceWriter.class);
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final String MERGE_REFERENCE_QUERY =
+            "MATCH (source:Method {identifier: $sourceId}), (target:Method {identifier: $targetId}) " +
+            "MERGE (source)-[r:REFERENCES]->(target)";
+    private static final String MERGE_REFERENCES_BATCH_QUERY =
+            "UNWIND $rows AS row " +
+            "MATCH (source:Method {identifier: row.sourceId}), (target:Method {identifier: row.targetId}) " +
+            "MERGE (source)-[r:REFERENCES]->(target)";
     private static Driver driver;
+    private static AsyncNeo4jWritePipeline pipeline;
+    private static int batchSize = DEFAULT_BATCH_SIZE;
+    private static final List<Map<String, Object>> pendingReferences = new ArrayList<>();
+    // References with no enclosing member have no source node; they are only summarized on close
+    private static final LongAdder skippedReferences = new LongAdder();
     private final Path currentFilePath;
-    private final int currentLineNumber;
 
     public static void initialize(String uri) {
+        initialize(uri, DEFAULT_BATCH_SIZE);
+    }
+
+    public static void initialize(String uri, int referenceBatchSize) {
+        initialize(uri, referenceBatchSize, AsyncNeo4jWritePipeline.DEFAULT_MAX_TRANSACTIONS,
+            AsyncNeo4jWritePipeline.DEFAULT_MAX_PENDING_BATCHES);
+    }
+
+    // A batch size of 1 or less writes every reference immediately in its own session. Larger
+    // batches go through the async pipeline, with up to maxTransactions written concurrently and
+    // analysis blocking once maxPendingBatches are waiting.
+    public static void initialize(String uri, int referenceBatchSize, int maxTransactions, int maxPendingBatches) {
         if (driver == null) {
             driver = GraphDatabase.driver(uri);
         }
+        batchSize = referenceBatchSize;
+        if (batchSize > 1 && pipeline == null) {
+            pipeline = new AsyncNeo4jWritePipeline(driver, MERGE_REFERENCES_BATCH_QUERY, maxTransactions, maxPendingBatches);
+        }
     }
 
     public static void closeDriver() {
         if (driver != null) {
+            flush();
+            if (pipeline != null) {
+                pipeline.close();
+                pipeline = null;
+            }
             driver.close();
             driver = null;
         }
-    }
-
-    public Neo4jReferenceWriter(Path currentFilePath, int currentLineNumber) {
-        if (driver == null) {
-            throw new IllegalStateException("Neo4j driver not initialized. Call initialize() first.");
+        long skipped = skippedReferences.sumThenReset();
+        if (skipped > 0) {
+            logger.info("Skipped {} method references outside any method, constructor or initializer", skipped);
         }
-        this.currentFilePath = currentFilePath;
-        this.currentLineNumber = currentLineNumber;
     }
 
-    private String findCurrentMethodId() {
-        try (Session session = driver.session()) {
-            // Log the current file path and line number for debugging
-            logger.debug("Finding method ID for file: {} at line: {}", currentFilePath, currentLineNumber);
-
-            // Convert to absolute path
-            String absoluteFilePath = currentFilePath.toAbsolutePath().toString();
-
-            // Try to find the method with exact file path match first
-            String query = "MATCH (method:Method) " +
-                          "WHERE method.file_path = $file_path " +
-                          "AND method.line_range[0] <= $row AND method.line_range[1] >= $row " +
-                          "RETURN method.identifier as methodId";
-            
-            logger.debug("Executing query to find method: {}", query);
-            logger.debug("Parameters - file_path: {}, row: {}", absoluteFilePath, currentLineNumber);
-            
-            Result result = session.run(query, 
-                Map.of("file_path", absoluteFilePath, 
-                      "row", currentLineNumber));
-            
-            if (result.hasNext()) {
-                String methodId = result.next().get("methodId").asString();
-                logger.debug("Found method with ID: {}", methodId);
-                return methodId;
+    // Hands the queued references to the write pipeline; they are written once closeDriver returns
+    public static void flush() {
+        List<Map<String, Object>> rows;
+        synchronized (Neo4jReferenceWriter.class) {
+            if (pendingReferences.isEmpty() || pipeline == null) {
+                return;
             }
+            rows = new ArrayList<>(pendingReferences);
+            pendingReferences.clear();
+        }
+        // Outside the lock, so other threads keep queuing while this one waits for the pipeline
+        logger.debug("Submitting {} method references to Neo4j", rows.size());
+        pipeline.submit(rows);
+    }
 
-            logger.warn("No method found at {}:{}", absoluteFilePath, currentLineNumber);
-            return null;
-        } catch (Exception e) {
-            logger.error("Error finding current method in Neo4j: {}", e.getMessage(), e);
-            return null;
+    public Neo4jReferenceWriter(Path currentFilePath) {
+        if (driver == null) {
+            throw new IllegalStateException("Neo4j driver not initialized. Call initialize() first.");
         }
+        this.currentFilePath = currentFilePath;
     }
 
-    public void createMethodReference(String referencedMethodId) {
+    public void createMethodReference(String currentMethodId, String referencedMethodId) {
         logger.debug("Attempting to create method reference to: {}", referencedMethodId);
-        String currentMethodId = findCurrentMethodId();
         if (currentMethodId == null) {
-            logger.warn("Skipping method reference creation - current method not found");
+            skippedReferences.increment();
+            logger.debug("Skipping method reference creation - no enclosing method in {}", currentFilePath);
+            return;
+        }
+
+        if (batchSize > 1) {
+            enqueueReference(currentMethodId, referencedMethodId);
             return;
         }
 
+        long start = System.nanoTime();
         try (Session session = driver.session()) {
-            String query = "MATCH (source:Method {identifier: $sourceId}), (target:Method {identifier: $targetId}) " +
-                          "MERGE (source)-[r:REFERENCES]->(target)";
-            
-            logger.debug("Executing query to create method reference: {}", query);
+            logger.debug("Executing query to create method reference: {}", MERGE_REFERENCE_QUERY);
             logger.debug("Parameters - sourceId: {}, targetId: {}", currentMethodId, referencedMethodId);
-            
-            Result result = session.run(query, 
-                Map.of("sourceId", currentMethodId, "targetId", referencedMethodId));
-            
+
+            session.run(MERGE_REFERENCE_QUERY,
+                Map.of("sourceId", currentMethodId, "targetId", referencedMethodId)).consume();
+
             logger.info("Created reference from {} to {}", currentMethodId, referencedMethodId);
         } catch (Exception e) {
             logger.error("Error creating method reference in Neo4j: {}", e.getMessage(), e);
+        } finally {
+            AnalyzerMetrics.getShared().recordPhase(AnalyzerMetrics.Phase.NEO4J_WRITE, start);
+        }
+    }
+
+    private static void enqueueReference(String sourceId, String targetId) {
+        boolean batchFull;
+        synchronized (Neo4jReferenceWriter.class) {
+            pendingReferences.add(Map.of("sourceId", sourceId, "targetId", targetId));
+            batchFull = pendingReferences.size() >= batchSize;
+        }
+        logger.debug("Queued reference from {} to {}", sourceId, targetId);
+        if (batchFull) {
+            flush();
         }
     }
-} 
\ No newline at end of file
+}
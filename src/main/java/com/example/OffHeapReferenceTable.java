@@ -0,0 +1,179 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Reference records in fixed-width slots of off-heap segments, so that tens of millions of records
+// add nothing to the heap the garbage collector traces or that -Xmx has to cover. A record is five
+// ints (target, file, line, kind, source) in native byte order. Segments are allocated as the table
+// grows and never move, either as direct buffers, which count against -XX:MaxDirectMemorySize, or
+// as consecutive regions of one memory-mapped file, which the operating system can page out.
+//
+// add may be called from several threads: each call reserves its own slot and writes only there.
+// Records are read back after the appends are done, typically in one sequential scan per result
+// writer; a read that races with the append of the same record may see it half written.
+public class OffHeapReferenceTable implements ReferenceTable {
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapReferenceTable.class);
+    static final int RECORD_BYTES = 20;
+    // 65536 records, 1.25 MiB per segment
+    static final int SEGMENT_SHIFT = 16;
+    private static final int SEGMENT_RECORDS = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_RECORDS - 1;
+    private static final int SEGMENT_BYTES = SEGMENT_RECORDS * RECORD_BYTES;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final AtomicInteger size = new AtomicInteger();
+    private final Object growLock = new Object();
+    // Replaced, never modified, when segments are added, so readers never see a half-initialized array.
+    // Slots past the last allocated segment are null.
+    private volatile ByteBuffer[] segments = new ByteBuffer[0];
+
+    private OffHeapReferenceTable(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    public static OffHeapReferenceTable direct() {
+        return new OffHeapReferenceTable(null, null);
+    }
+
+    // The file is created or truncated, and deleted when the table is closed
+    public static OffHeapReferenceTable mapped(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new OffHeapReferenceTable(file, channel);
+    }
+
+    @Override
+    public int add(int target, int file, int line, int kind, int source) {
+        int record = size.getAndIncrement();
+        if (record < 0) {
+            size.decrementAndGet();
+            throw new IllegalStateException("Reference table is full");
+        }
+        ByteBuffer segment = segment(record >>> SEGMENT_SHIFT);
+        int offset = (record & SEGMENT_MASK) * RECORD_BYTES;
+        segment.putInt(offset, target);
+        segment.putInt(offset + 4, file);
+        segment.putInt(offset + 8, line);
+        segment.putInt(offset + 12, kind);
+        segment.putInt(offset + 16, source);
+        return record;
+    }
+
+    private ByteBuffer segment(int index) {
+        ByteBuffer[] current = segments;
+        if (index < current.length && current[index] != null) {
+            return current[index];
+        }
+        synchronized (growLock) {
+            current = segments;
+            if (index >= current.length || current[index] == null) {
+                ByteBuffer[] grown = Arrays.copyOf(current, Math.max(index + 1, current.length * 2));
+                for (int i = 0; i <= index; i++) {
+                    if (grown[i] == null) {
+                        grown[i] = allocate(i);
+                    }
+                }
+                segments = grown;
+                current = grown;
+            }
+            return current[index];
+        }
+    }
+
+    private ByteBuffer allocate(int index) {
+        if (channel == null) {
+            return ByteBuffer.allocateDirect(SEGMENT_BYTES).order(ByteOrder.nativeOrder());
+        }
+        try {
+            // Mapping past the end of the file extends it
+            return channel.map(FileChannel.MapMode.READ_WRITE, (long) index * SEGMENT_BYTES, SEGMENT_BYTES).order(ByteOrder.nativeOrder());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map reference segment " + index + " of " + file, e);
+        }
+    }
+
+    private int read(int record, int column) {
+        if (record < 0 || record >= size.get()) {
+            throw new IndexOutOfBoundsException("Record " + record + " of " + size.get());
+        }
+        return segments[record >>> SEGMENT_SHIFT].getInt((record & SEGMENT_MASK) * RECORD_BYTES + column);
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public int getTarget(int record) {
+        return read(record, 0);
+    }
+
+    @Override
+    public int getFile(int record) {
+        return read(record, 4);
+    }
+
+    @Override
+    public int getLine(int record) {
+        return read(record, 8);
+    }
+
+    @Override
+    public int getKind(int record) {
+        return read(record, 12);
+    }
+
+    @Override
+    public int getSource(int record) {
+        return read(record, 16);
+    }
+
+    // Keeps the segments for the next records
+    @Override
+    public void clear() {
+        size.set(0);
+    }
+
+    public long getAllocatedBytes() {
+        long allocated = 0;
+        for (ByteBuffer segment : segments) {
+            if (segment != null) {
+                allocated += SEGMENT_BYTES;
+            }
+        }
+        return allocated;
+    }
+
+    // Direct segments are freed once the buffers are collected; mapped ones when they are unmapped,
+    // which the JDK also leaves to the collector, but the file is deleted right away
+    @Override
+    public void close() {
+        synchronized (growLock) {
+            segments = new ByteBuffer[0];
+            size.set(0);
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Could not delete reference table file {}", file, e);
+            }
+        }
+    }
+}
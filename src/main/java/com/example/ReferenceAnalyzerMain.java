@@ -1,27 +1,46 @@
 package com.example;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import org.apache.maven.model.Model;
-import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.javaparser.JavaParser;
-import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ParseResult;
 import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
 import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.InitializerDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.body.Parameter;
 import com.github.javaparser.ast.expr.AnnotationExpr;
@@ -32,19 +51,25 @@ import com.github.javaparser.ast.expr.ObjectCreationExpr;
 import com.github.javaparser.ast.expr.SingleMemberAnnotationExpr;
 import com.github.javaparser.ast.type.ClassOrInterfaceType;
 import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.ast.type.TypeParameter;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import com.github.javaparser.resolution.TypeSolver;
 import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
-import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
 import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFactory;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JarTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
 
 public class ReferenceAnalyzerMain {
     private static final Logger logger = LoggerFactory.getLogger(ReferenceAnalyzerMain.class);
-    private static final JavaParser javaParser = new JavaParser(new ParserConfiguration());
-    private static JavaParserFacade symbolSolver;
+    // Files handed to workers ahead of the merge point, per thread
+    private static final int FILES_IN_FLIGHT_PER_THREAD = 4;
+    private static final ResolutionCache resolutionCache = ResolutionCache.getShared();
+    private static final AnalyzerMetrics metrics = AnalyzerMetrics.getShared();
+    private static final ResolutionDiagnostics diagnostics = ResolutionDiagnostics.getShared();
 
     public static void main(String[] args) {
         if (args.length < 1) {
@@ -54,308 +79,710 @@ public class ReferenceAnalyzerMain {
 
         String projectPath = args[0];
         try {
-            // Initialize analyzers
-            MethodReferenceAnalyzer methodAnalyzer = new MethodReferenceAnalyzer();
-            ClassReferenceAnalyzer classAnalyzer = new ClassReferenceAnalyzer();
+            AnalyzerOptions options = AnalyzerOptions.parse(args, 1);
+            metrics.reset();
+            diagnostics.reset();
+            AnalyzerMetrics.registerMBean();
+
+            AnalysisSession session = AnalysisSession.open(projectPath);
+            if (session == null) {
+                return;
+            }
+            analyzeAndWriteResults(session, options, Paths.get(""));
+            logger.info("Analysis complete. Results written to method-references.txt and class-references.txt");
+            writeMetricsReport();
+
+        } catch (Exception e) {
+            logger.error("Error analyzing project", e);
+        }
+    }
+
+    // Analyzes the project and writes method-references.txt, class-references.txt and the resolution
+    // failures in unresolved-references.json to the output directory
+    static Results analyzeAndWriteResults(AnalysisSession session, AnalyzerOptions options, Path outputDir) throws IOException {
+        Path methodOutput = outputDir.resolve("method-references.txt");
+        Path classOutput = outputDir.resolve("class-references.txt");
+        if (options.isStreamOutput()) {
+            StreamingResultWriter resultWriter = new StreamingResultWriter(methodOutput, classOutput);
+            try (ReferenceSink sink = openSinks(resultWriter, options)) {
+                analyzeProject(session, sink, options);
+            }
+            logger.info("Found {} method references", resultWriter.getMethodReferenceCount());
+            logger.info("Found {} class references", resultWriter.getClassReferenceCount());
+            diagnostics.writeReport(outputDir.resolve("unresolved-references.json"));
+            return new Results(resultWriter.getMethodReferenceCount(), resultWriter.getClassReferenceCount(), methodOutput, classOutput);
+        }
+
+        // Initialize analyzers; the method references are kept in the analyzer's shared table,
+        // which is replaced for every analysis
+        MethodReferenceAnalyzer.setReferenceTable(ReferenceTable.create(options, "method-references"));
+        MethodReferenceAnalyzer methodAnalyzer = new MethodReferenceAnalyzer();
+        try (ReferenceTable classReferences = ReferenceTable.create(options, "class-references")) {
+            ClassReferenceAnalyzer classAnalyzer = new ClassReferenceAnalyzer(classReferences);
 
             // Analyze project
-            analyzeProject(projectPath, methodAnalyzer, classAnalyzer);
+            try (ReferenceSink sink = openSinks(new AnalyzerReferenceSink(methodAnalyzer, classAnalyzer), options)) {
+                analyzeProject(session, sink, options);
+            }
 
             // Log summary
-            logger.info("Found {} method references", methodAnalyzer.getFormattedMethodReferences().size());
-            logger.info("Found {} class references", classAnalyzer.getClassReferences().size());
+            logger.info("Found {} method references", methodAnalyzer.getMethodReferenceCount());
+            logger.info("Found {} class references", classAnalyzer.getClassReferenceCount());
 
             // Write results to files
-            methodAnalyzer.writeResultsToFile("method-references.txt");
-            classAnalyzer.writeResultsToFile("class-references.txt");
-            
-            logger.info("Analysis complete. Results written to method-references.txt and class-references.txt");
+            methodAnalyzer.writeResultsToFile(methodOutput.toString());
+            classAnalyzer.writeResultsToFile(classOutput.toString());
+
+            if (options.getIndexFile() != null) {
+                ReferenceIndexWriter index = new ReferenceIndexWriter();
+                methodAnalyzer.addToIndex(index);
+                classAnalyzer.addToIndex(index);
+                index.write(Paths.get(options.getIndexFile()));
+            }
+            if (options.getNeo4jImportDir() != null) {
+                new Neo4jImportWriter(Paths.get(options.getNeo4jImportDir()))
+                    .write(methodAnalyzer.buildReferenceGraph(), classAnalyzer.buildReferenceGraph());
+            }
+            diagnostics.writeReport(outputDir.resolve("unresolved-references.json"));
+            return new Results(methodAnalyzer.getMethodReferenceCount(), classAnalyzer.getClassReferenceCount(), methodOutput, classOutput);
+        } finally {
+            // Releases the off-heap records, and deletes their file, as soon as the results are written
+            MethodReferenceAnalyzer.setReferenceTable(new HeapReferenceTable());
+        }
+    }
 
-        } catch (Exception e) {
-            logger.error("Error analyzing project", e);
+    // Feeds the primary sink and the additional outputs requested in the options from one traversal.
+    // When an output cannot be opened, the sinks opened before it are closed.
+    static ReferenceSink openSinks(ReferenceSink primary, AnalyzerOptions options) throws IOException {
+        List<ReferenceSink> sinks = new ArrayList<>();
+        sinks.add(primary);
+        try {
+            if (options.getJsonLinesFile() != null) {
+                sinks.add(new JsonLinesReferenceSink(Paths.get(options.getJsonLinesFile())));
+            }
+            if (options.getNeo4jUri() != null) {
+                sinks.add(new Neo4jReferenceSink(options.getNeo4jUri(), options));
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                ReferenceSink.fanOut(sinks).close();
+            } catch (IOException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
         }
+        return ReferenceSink.fanOut(sinks);
+    }
+
+    private static void writeMetricsReport() {
+        Path reportFile = Paths.get("analyzer-metrics.json");
+        metrics.writeJsonReport(reportFile);
+        logger.info("Metrics report written to {}", reportFile);
     }
 
     public static void analyzeProject(String projectPath, MethodReferenceAnalyzer methodAnalyzer, ClassReferenceAnalyzer classAnalyzer) 
             throws IOException, XmlPullParserException {
-        // Read pom.xml
-        MavenXpp3Reader reader = new MavenXpp3Reader();
-        Model model = reader.read(new FileInputStream(new File(projectPath, "pom.xml")));
-        
-        // Get source directory
-        String sourceDir = model.getBuild() != null && model.getBuild().getSourceDirectory() != null
-                ? model.getBuild().getSourceDirectory()
-                : "src/main/java";
-
-        Path sourcePath = Paths.get(projectPath, sourceDir);
-        if (!Files.exists(sourcePath)) {
-            logger.error("Source directory not found: {}", sourcePath);
-            return;
+        analyzeProject(projectPath, methodAnalyzer, classAnalyzer, new AnalyzerOptions());
+    }
+
+    public static void analyzeProject(String projectPath, MethodReferenceAnalyzer methodAnalyzer, ClassReferenceAnalyzer classAnalyzer,
+            AnalyzerOptions options) throws IOException, XmlPullParserException {
+        analyzeProject(projectPath, references -> references.applyTo(methodAnalyzer, classAnalyzer), options);
+    }
+
+    static void analyzeProject(AnalysisSession session, ReferenceSink sink, AnalyzerOptions options) throws IOException {
+        analyzeProject(session, references -> references.replay(sink), options);
+    }
+
+    // Passes the references of every file to the sink on the calling thread, in source file order
+    public static void analyzeProject(String projectPath, Consumer<FileReferences> sink, AnalyzerOptions options)
+            throws IOException, XmlPullParserException {
+        AnalysisSession session = AnalysisSession.open(projectPath);
+        if (session != null) {
+            analyzeProject(session, sink, options);
+        }
+    }
+
+    static void analyzeProject(AnalysisSession session, Consumer<FileReferences> sink, AnalyzerOptions options) throws IOException {
+        resolutionCache.clear();
+        MavenReactor reactor = session.getReactor();
+        if (reactor.size() > 1) {
+            analyzeReactor(session, sink, options);
+        } else {
+            analyzeModule(session, reactor.getModules().get(0), sink, options);
+        }
+        logger.info("Resolution cache: {}", resolutionCache);
+    }
+
+    // Single-module projects spread their files over all threads
+    private static void analyzeModule(AnalysisSession session, MavenReactor.Module module, Consumer<FileReferences> sink,
+            AnalyzerOptions options) throws IOException {
+        Path sourcePath = module.getSourcePath();
+        List<Path> javaFiles = findJavaFiles(sourcePath);
+        Predicate<String> knownTypes = knownTypes(session, TypeNameTable.projectTypes(sourcePath, javaFiles));
+
+        // JavaParser and the symbol solver are not thread-safe, so every worker gets its own
+        int threads = options.getThreads();
+        BlockingQueue<Worker> workers = new ArrayBlockingQueue<>(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Worker(sourcePath, session.getJarSolver(i), knownTypes, options.getMemoryProfile()));
+        }
+
+        if (options.isIncremental()) {
+            String configurationKey = String.join(File.pathSeparator, session.getDependencyJars());
+            IncrementalAnalysis incremental = IncrementalAnalysis.load(
+                IncrementalAnalysis.manifestPath(module.getDirectory().toString(), "references"), sourcePath, configurationKey);
+            incremental.analyze(javaFiles,
+                (files, consumer) -> analyzeFiles(files, workers, threads, true, consumer),
+                sink);
+        } else {
+            analyzeFiles(javaFiles, workers, threads, false, sink);
+        }
+    }
+
+    // In a reactor, modules are the unit of parallelism: each module is analyzed on one worker slot
+    // as soon as the modules it depends on are done, so independent modules run side by side. The
+    // results are passed to the sink in build order, which makes the output independent of the
+    // thread count. Incremental runs keep a manifest per module; the types whose signature changed in
+    // a module are passed on to the modules depending on it, whose files referring to them are
+    // analyzed again.
+    private static void analyzeReactor(AnalysisSession session, Consumer<FileReferences> sink, AnalyzerOptions options)
+            throws IOException {
+        List<MavenReactor.Module> modules = session.getReactor().getModules();
+
+        // A module's sources see its own types and those of the modules it depends on
+        List<List<Path>> moduleFiles = new ArrayList<>();
+        List<Set<String>> moduleTypes = new ArrayList<>();
+        List<Predicate<String>> knownTypes = new ArrayList<>();
+        for (MavenReactor.Module module : modules) {
+            List<Path> javaFiles = module.getSourcePath() != null ? findJavaFiles(module.getSourcePath()) : Collections.emptyList();
+            Set<String> types = module.getSourcePath() != null
+                ? TypeNameTable.projectTypes(module.getSourcePath(), javaFiles)
+                : new HashSet<>();
+            for (int upstream : module.getUpstream()) {
+                types.addAll(moduleTypes.get(upstream));
+            }
+            moduleFiles.add(javaFiles);
+            moduleTypes.add(types);
+            knownTypes.add(knownTypes(session, types));
+        }
+
+        // A module's solver and workers are released from the slots once it and every module
+        // depending on it are done, so the slots only hold the modules that can still be needed
+        int[] pendingDependents = new int[modules.size()];
+        for (MavenReactor.Module module : modules) {
+            if (module.getSourcePath() != null) {
+                module.getUpstream().forEach(upstream -> pendingDependents[upstream]++);
+            }
+        }
+        Set<Integer> released = ConcurrentHashMap.newKeySet();
+
+        int threads = options.getThreads();
+        BlockingQueue<ReactorSlot> slots = new ArrayBlockingQueue<>(threads);
+        for (int i = 0; i < threads; i++) {
+            slots.add(new ReactorSlot(modules, session.getJarSolver(i), knownTypes, options.getMemoryProfile(), released));
+        }
+        String configurationKey = options.isIncremental() ? String.join(File.pathSeparator, session.getDependencyJars()) : null;
+
+        // Modules without sources, like aggregator poms, have nothing to analyze
+        List<List<FileReferences>> results = new ArrayList<>(Collections.nCopies(modules.size(), null));
+        List<Set<String>> changedTypes = new ArrayList<>(Collections.nCopies(modules.size(), Collections.emptySet()));
+        boolean[] started = new boolean[modules.size()];
+        boolean[] finished = new boolean[modules.size()];
+        for (int m = 0; m < modules.size(); m++) {
+            if (modules.get(m).getSourcePath() == null) {
+                started[m] = finished[m] = true;
+                results.set(m, Collections.emptyList());
+            }
         }
 
-        // Initialize symbol solver
-        CombinedTypeSolver typeSolver = new CombinedTypeSolver();
-        typeSolver.add(new ReflectionTypeSolver(true));
-        typeSolver.add(new JavaParserTypeSolver(sourcePath));
-        
-        // Add type solvers for project dependencies
-        if (model.getDependencies() != null) {
-            for (org.apache.maven.model.Dependency dependency : model.getDependencies()) {
-                try {
-                    String groupId = dependency.getGroupId();
-                    String artifactId = dependency.getArtifactId();
-                    String version = dependency.getVersion();
-                    
-                    String localRepoPath = System.getProperty("user.home") + "/.m2/repository";
-                    String jarPath = String.format("%s/%s/%s/%s/%s-%s.jar",
-                        localRepoPath,
-                        groupId.replace('.', '/'),
-                        artifactId,
-                        version,
-                        artifactId,
-                        version);
-                    
-                    if (Files.exists(Paths.get(jarPath))) {
-                        typeSolver.add(new JarTypeSolver(jarPath));
-                        logger.info("Added type solver for dependency: {}:{}:{}", groupId, artifactId, version);
+        logger.info("Analyzing {} reactor modules with {} threads", modules.size(), threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CompletionService<ModuleResult> completion = new ExecutorCompletionService<>(executor);
+        try {
+            int delivered = 0;
+            while (true) {
+                for (int m = 0; m < modules.size(); m++) {
+                    if (!started[m] && allFinished(modules.get(m).getUpstream(), finished)) {
+                        started[m] = true;
+                        int module = m;
+                        Set<String> upstreamChangedTypes = new HashSet<>();
+                        modules.get(m).getUpstream().forEach(upstream -> upstreamChangedTypes.addAll(changedTypes.get(upstream)));
+                        completion.submit(() -> analyzeReactorModule(module, modules.get(module), moduleFiles.get(module), slots,
+                            configurationKey, upstreamChangedTypes));
+                    }
+                }
+                while (delivered < modules.size() && finished[delivered]) {
+                    results.get(delivered).forEach(sink);
+                    results.set(delivered, null);
+                    delivered++;
+                }
+                if (delivered == modules.size()) {
+                    break;
+                }
+                // A module that is not finished yet is running, or waits for one that is
+                ModuleResult result = completion.take().get();
+                finished[result.module] = true;
+                results.set(result.module, result.references);
+                changedTypes.set(result.module, result.changedTypes);
+                if (pendingDependents[result.module] == 0) {
+                    released.add(result.module);
+                }
+                for (int upstream : modules.get(result.module).getUpstream()) {
+                    if (--pendingDependents[upstream] == 0 && finished[upstream]) {
+                        released.add(upstream);
                     }
-                } catch (Exception e) {
-                    logger.warn("Could not add type solver for dependency: {}:{}:{}", 
-                        dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion());
                 }
             }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error analyzing reactor module", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for module analysis", e);
+        } finally {
+            executor.shutdownNow();
         }
-        
-        symbolSolver = JavaParserFacade.get(typeSolver);
+    }
+
+    private static boolean allFinished(List<Integer> upstream, boolean[] finished) {
+        for (int module : upstream) {
+            if (!finished[module]) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        // Analyze all Java files
-        Files.walk(sourcePath)
-            .filter(path -> path.toString().endsWith(".java"))
-            .forEach(path -> {
-                try {
-                    analyzeJavaFile(path, methodAnalyzer, classAnalyzer);
-                } catch (IOException e) {
-                    logger.error("Error analyzing file: " + path, e);
+    private static ModuleResult analyzeReactorModule(int index, MavenReactor.Module module, List<Path> javaFiles,
+            BlockingQueue<ReactorSlot> slots, String configurationKey, Set<String> upstreamChangedTypes)
+            throws InterruptedException {
+        ReactorSlot slot = slots.take();
+        List<FileReferences> references = new ArrayList<>();
+        Set<String> changedTypes = Collections.emptySet();
+        try {
+            long start = System.nanoTime();
+            slot.dropReleasedModules();
+            Worker worker = slot.worker(index);
+            if (configurationKey != null) {
+                IncrementalAnalysis incremental = IncrementalAnalysis.load(
+                    IncrementalAnalysis.manifestPath(module.getDirectory().toString(), "references"), module.getSourcePath(),
+                    configurationKey);
+                incremental.analyze(javaFiles, upstreamChangedTypes,
+                    (files, consumer) -> files.forEach(path -> consumer.accept(analyzeJavaFile(path, worker, true))),
+                    references::add);
+                changedTypes = incremental.getChangedTypes();
+            } else {
+                for (Path path : javaFiles) {
+                    references.add(analyzeJavaFile(path, worker, false));
                 }
-            });
+            }
+            logger.info("Analyzed module {} ({} files) in {} ms", module.getKey(), javaFiles.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            // The other modules are still analyzed; this one contributes what it got so far
+            logger.error("Error analyzing module {}", module.getKey(), e);
+        } finally {
+            slots.add(slot);
+        }
+        return new ModuleResult(index, references, changedTypes);
     }
 
-    private static void analyzeJavaFile(Path filePath, MethodReferenceAnalyzer methodAnalyzer, ClassReferenceAnalyzer classAnalyzer) 
-            throws IOException {
+    // Types the per-file name tables may resolve to: the given project types, the dependency jars and the JDK
+    private static Predicate<String> knownTypes(AnalysisSession session, Set<String> projectTypes) {
+        ClassJarIndex classIndex = session.getClassIndex();
+        return name -> projectTypes.contains(name) || classIndex.findJar(name) != null || TypeNameTable.isJdkType(name);
+    }
+
+    private static List<Path> findJavaFiles(Path sourcePath) throws IOException {
+        long walkStart = System.nanoTime();
+        try (Stream<Path> paths = Files.walk(sourcePath)) {
+            return paths.filter(path -> path.toString().endsWith(".java")).collect(Collectors.toList());
+        } finally {
+            metrics.recordPhase(AnalyzerMetrics.Phase.WALK, walkStart);
+        }
+    }
+
+    // Passes the references of each file to the consumer on the calling thread, in list order
+    private static void analyzeFiles(List<Path> javaFiles, BlockingQueue<Worker> workers, int threads, boolean withSignatures,
+            Consumer<FileReferences> consumer) {
+        if (javaFiles.isEmpty()) {
+            return;
+        }
+        if (threads == 1) {
+            Worker worker = workers.peek();
+            for (Path path : javaFiles) {
+                consumer.accept(analyzeJavaFile(path, worker, withSignatures));
+            }
+            return;
+        }
+
+        logger.info("Analyzing {} files with {} threads", javaFiles.size(), threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // Results are merged in list order, keeping a bounded number of files in flight
+            Deque<Future<FileReferences>> inFlight = new ArrayDeque<>();
+            for (Path path : javaFiles) {
+                inFlight.add(executor.submit(() -> analyzeWithWorker(path, workers, withSignatures)));
+                if (inFlight.size() >= threads * FILES_IN_FLIGHT_PER_THREAD) {
+                    mergeResult(inFlight.poll(), consumer);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                mergeResult(inFlight.poll(), consumer);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static FileReferences analyzeWithWorker(Path filePath, BlockingQueue<Worker> workers, boolean withSignatures)
+            throws InterruptedException {
+        Worker worker = workers.take();
+        try {
+            return analyzeJavaFile(filePath, worker, withSignatures);
+        } finally {
+            workers.add(worker);
+        }
+    }
+
+    private static void mergeResult(Future<FileReferences> result, Consumer<FileReferences> consumer) {
+        try {
+            consumer.accept(result.get());
+        } catch (ExecutionException e) {
+            logger.error("Error analyzing file", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for file analysis", e);
+        }
+    }
+
+    private static FileReferences analyzeJavaFile(Path filePath, Worker worker, boolean withSignature) {
         logger.info("Analyzing file: {}", filePath);
-        
-        javaParser.parse(filePath).ifSuccessful(cu -> {
-            // Analyze method references
-            MethodReferenceVisitor methodVisitor = new MethodReferenceVisitor(filePath, methodAnalyzer);
-            methodVisitor.visit(cu, null);
-
-            // Analyze class references
-            ClassReferenceVisitor classVisitor = new ClassReferenceVisitor(filePath, classAnalyzer);
-            classVisitor.visit(cu, null);
-        });
+        long fileStart = System.nanoTime();
+        FileReferences references = new FileReferences(filePath);
+
+        try {
+            long parseStart = System.nanoTime();
+            ParseResult<CompilationUnit> result = worker.javaParser.parse(filePath);
+            metrics.recordPhase(AnalyzerMetrics.Phase.PARSE, parseStart);
+            result.ifSuccessful(cu -> {
+                // Method and class references are extracted in one walk over the tree
+                TypeNameTable typeNames = new TypeNameTable(cu, worker.knownTypes);
+                new ReferenceVisitor(filePath, worker.symbolSolver, typeNames, references).visit(cu, null);
+
+                if (withSignature) {
+                    references.setSignature(FileSignature.of(cu));
+                }
+            });
+        } catch (IOException e) {
+            logger.error("Error analyzing file: " + filePath, e);
+            references.markFailed();
+        }
+        metrics.recordFile(fileStart);
+        return references;
+    }
+
+    static class Results {
+        final int methodReferenceCount;
+        final int classReferenceCount;
+        final Path methodOutput;
+        final Path classOutput;
+
+        Results(int methodReferenceCount, int classReferenceCount, Path methodOutput, Path classOutput) {
+            this.methodReferenceCount = methodReferenceCount;
+            this.classReferenceCount = classReferenceCount;
+            this.methodOutput = methodOutput;
+            this.classOutput = classOutput;
+        }
+    }
+
+    // Parser and symbol solver owned by a single analysis thread at a time
+    private static class Worker {
+        final JavaParser javaParser;
+        final TypeSolver typeSolver;
+        final Predicate<String> knownTypes;
+        // Kept for the worker's lifetime; the types it resolves are stored on the nodes of each file
+        final JavaParserFacade symbolSolver;
+
+        // The source solver is always new, so that edited files are parsed again; the jar solver may be reused
+        Worker(Path sourcePath, LazyJarTypeSolver jarSolver, Predicate<String> knownTypes, MemoryProfile profile) {
+            CombinedTypeSolver typeSolver = new CombinedTypeSolver();
+            typeSolver.add(new ReflectionTypeSolver(true));
+            typeSolver.add(profile.sourceSolver(sourcePath));
+            typeSolver.add(jarSolver);
+            javaParser = new JavaParser(profile.parserConfiguration());
+            this.typeSolver = typeSolver;
+            this.knownTypes = knownTypes;
+            symbolSolver = JavaParserFacade.get(typeSolver);
+        }
+
+        Worker(CombinedTypeSolver typeSolver, Predicate<String> knownTypes, MemoryProfile profile) {
+            javaParser = new JavaParser(profile.parserConfiguration());
+            this.typeSolver = typeSolver;
+            this.knownTypes = knownTypes;
+            symbolSolver = JavaParserFacade.get(typeSolver);
+        }
+    }
+
+    private static class ModuleResult {
+        final int module;
+        final List<FileReferences> references;
+        // Types whose signature changed in this module or its upstream modules, for incremental runs
+        final Set<String> changedTypes;
+
+        ModuleResult(int module, List<FileReferences> references, Set<String> changedTypes) {
+            this.module = module;
+            this.references = references;
+            this.changedTypes = changedTypes;
+        }
+    }
+
+    // The workers of one slot for the modules of a reactor, created on first use. Every module gets
+    // its own source solver once per slot, which the workers of the modules depending on it share
+    // instead of indexing those sources again. Modules in the released set are no longer needed by
+    // any module still to be analyzed; their solvers and workers are dropped before the slot analyzes
+    // its next module. The jar solver is shared by all modules of the slot; it takes the most recently
+    // built chain as its parent, which any module's chain can serve as.
+    private static class ReactorSlot {
+        private final List<MavenReactor.Module> modules;
+        private final LazyJarTypeSolver jarSolver;
+        private final List<Predicate<String>> knownTypes;
+        private final MemoryProfile profile;
+        private final Set<Integer> released;
+        private final Map<Integer, JavaParserTypeSolver> sourceSolvers = new HashMap<>();
+        private final Map<Integer, Worker> workers = new HashMap<>();
+
+        ReactorSlot(List<MavenReactor.Module> modules, LazyJarTypeSolver jarSolver, List<Predicate<String>> knownTypes,
+                MemoryProfile profile, Set<Integer> released) {
+            this.modules = modules;
+            this.jarSolver = jarSolver;
+            this.knownTypes = knownTypes;
+            this.profile = profile;
+            this.released = released;
+        }
+
+        void dropReleasedModules() {
+            sourceSolvers.keySet().removeIf(released::contains);
+            workers.keySet().removeIf(released::contains);
+        }
+
+        Worker worker(int module) {
+            Worker worker = workers.get(module);
+            if (worker == null) {
+                CombinedTypeSolver typeSolver = new CombinedTypeSolver();
+                typeSolver.add(new ReflectionTypeSolver(true));
+                JavaParserTypeSolver sourceSolver = profile.sourceSolver(modules.get(module).getSourcePath());
+                typeSolver.add(sourceSolver);
+                sourceSolvers.put(module, sourceSolver);
+                // Upstream modules come first in build order, so this never recurses into the module itself
+                for (int upstream : modules.get(module).getUpstream()) {
+                    if (modules.get(upstream).getSourcePath() != null) {
+                        worker(upstream);
+                        typeSolver.add(new SharedTypeSolver(sourceSolvers.get(upstream)));
+                    }
+                }
+                typeSolver.add(jarSolver);
+                worker = new Worker(typeSolver, knownTypes.get(module), profile);
+                workers.put(module, worker);
+            }
+            return worker;
+        }
     }
 
-    private static class MethodReferenceVisitor extends VoidVisitorAdapter<Void> {
+    // Extracts method and class references in a single pass over the tree. Each kind of reference
+    // is recorded in the same post-order as separate method and class passes would produce.
+    private static class ReferenceVisitor extends VoidVisitorAdapter<Void> {
         private final Path filePath;
-        private final MethodReferenceAnalyzer analyzer;
+        private final JavaParserFacade symbolSolver;
+        private final TypeNameTable typeNames;
+        private final FileReferences references;
+        // Identifiers of the members being visited, used as the caller of the references found in them
+        private final Deque<String> enclosingMembers = new ArrayDeque<>();
 
-        MethodReferenceVisitor(Path filePath, MethodReferenceAnalyzer analyzer) {
+        ReferenceVisitor(Path filePath, JavaParserFacade symbolSolver, TypeNameTable typeNames, FileReferences references) {
             this.filePath = filePath;
-            this.analyzer = analyzer;
+            this.symbolSolver = symbolSolver;
+            this.typeNames = typeNames;
+            this.references = references;
         }
 
-        @Override
-        public void visit(MethodCallExpr n, Void arg) {
-            super.visit(n, arg);
+        private void visitMember(Node n, String identifier, Runnable visitChildren) {
+            if (MethodIdentifiers.isAnonymousMember(n)) {
+                visitChildren.run();
+                return;
+            }
+            enclosingMembers.push(identifier);
             try {
-                ResolvedMethodDeclaration method = symbolSolver.solve(n).getCorrespondingDeclaration();
-                analyzer.addMethodReference(method.getQualifiedName(), filePath, n.getBegin().get().line);
-            } catch (Exception e) {
-                logger.warn("Could not resolve method call: {} in {}:{}", 
-                    n.toString(), filePath, n.getBegin().get().line);
+                visitChildren.run();
+            } finally {
+                enclosingMembers.pop();
             }
         }
 
-        @Override
-        public void visit(ObjectCreationExpr n, Void arg) {
-            super.visit(n, arg);
+        // Qualified name of a type name as written at the node. Most names are found in the file's
+        // name table; the symbol solver only looks up the first segment of the others in the node's
+        // context. Type variables and names nothing resolves are kept as written.
+        private String qualifiedName(Node node, String name) {
+            String qualified = typeNames.qualify(node, name);
+            if (qualified != null) {
+                return qualified;
+            }
+            int dot = name.indexOf('.');
+            String first = dot < 0 ? name : name.substring(0, dot);
+            if (typeNames.isTypeParameter(node, first)) {
+                return name;
+            }
             try {
-                String className = n.getType().getNameAsString();
-                analyzer.addConstructorReference(className, filePath, n.getBegin().get().line);
+                SymbolReference<ResolvedTypeDeclaration> solved = JavaParserFactory.getContext(node, symbolSolver.getTypeSolver()).solveType(first, null);
+                if (solved.isSolved()) {
+                    metrics.recordResolution("Class Name", true);
+                    String solvedFirst = solved.getCorrespondingDeclaration().getQualifiedName();
+                    return dot < 0 ? solvedFirst : solvedFirst + name.substring(dot);
+                }
             } catch (Exception e) {
-                logger.warn("Could not resolve constructor call: {} in {}:{}", 
-                    n.toString(), filePath, n.getBegin().get().line);
+                // Fall through to the name as written
             }
+            metrics.recordResolution("Class Name", false);
+            return name;
         }
-    }
 
-    private static class ClassReferenceVisitor extends VoidVisitorAdapter<Void> {
-        private final Path filePath;
-        private final ClassReferenceAnalyzer analyzer;
+        // Records a class or interface type and the class or interface types among its type arguments
+        private void addTypeReference(Type type, String kind, String typeArgumentKind) {
+            if (!type.isClassOrInterfaceType()) {
+                return;
+            }
+            ClassOrInterfaceType classType = type.asClassOrInterfaceType();
+            references.addClassReference(qualifiedName(classType, classType.getNameWithScope()), classType.getBegin().get().line, kind);
+            if (classType.getTypeArguments().isPresent()) {
+                for (Type typeArg : classType.getTypeArguments().get()) {
+                    if (typeArg.isClassOrInterfaceType()) {
+                        ClassOrInterfaceType argType = typeArg.asClassOrInterfaceType();
+                        references.addClassReference(qualifiedName(argType, argType.getNameWithScope()), argType.getBegin().get().line,
+                            typeArgumentKind);
+                    }
+                }
+            }
+        }
 
-        ClassReferenceVisitor(Path filePath, ClassReferenceAnalyzer analyzer) {
-            this.filePath = filePath;
-            this.analyzer = analyzer;
+        private void addTypeBounds(NodeList<TypeParameter> typeParameters, String kind) {
+            for (TypeParameter typeParam : typeParameters) {
+                for (ClassOrInterfaceType bound : typeParam.getTypeBound()) {
+                    try {
+                        references.addClassReference(qualifiedName(bound, bound.getNameWithScope()), bound.getBegin().get().line, kind);
+                    } catch (Exception e) {
+                        // Ignore unresolved type parameter bounds
+                    }
+                }
+            }
         }
 
         @Override
         public void visit(ClassOrInterfaceDeclaration n, Void arg) {
             super.visit(n, arg);
             try {
-                // Handle class definition
-                ResolvedReferenceTypeDeclaration resolved = n.resolve();
-                analyzer.addClassDefinition(resolved.getQualifiedName(), filePath, n.getBegin().get().line);
-
-                // Handle extends
-                if (n.getExtendedTypes().isNonEmpty()) {
-                    for (var extendedType : n.getExtendedTypes()) {
-                        try {
-                            String className = extendedType.getNameAsString();
-                            analyzer.addClassReference(className, filePath, extendedType.getBegin().get().line, "Extends");
-                            // Handle type parameters in extends
-                            if (extendedType.getTypeArguments().isPresent()) {
-                                for (var typeArg : extendedType.getTypeArguments().get()) {
-                                    if (typeArg.isClassOrInterfaceType()) {
-                                        String typeArgName = typeArg.asClassOrInterfaceType().getNameAsString();
-                                        analyzer.addClassReference(typeArgName, filePath, typeArg.getBegin().get().line, "Extends Type Parameter");
-                                    }
-                                }
-                            }
-                        } catch (Exception e) {
-                            // Ignore unresolved extended types
-                        }
-                    }
+                // Handle class definition; local classes have no qualified name
+                if (n.getFullyQualifiedName().isPresent()) {
+                    references.addClassDefinition(n.getFullyQualifiedName().get(), n.getBegin().get().line);
                 }
 
-                // Handle implements
-                if (n.getImplementedTypes().isNonEmpty()) {
-                    for (var implementedType : n.getImplementedTypes()) {
-                        try {
-                            String className = implementedType.getNameAsString();
-                            analyzer.addClassReference(className, filePath, implementedType.getBegin().get().line, "Implements");
-                            // Handle type parameters in implements
-                            if (implementedType.getTypeArguments().isPresent()) {
-                                for (var typeArg : implementedType.getTypeArguments().get()) {
-                                    if (typeArg.isClassOrInterfaceType()) {
-                                        String typeArgName = typeArg.asClassOrInterfaceType().getNameAsString();
-                                        analyzer.addClassReference(typeArgName, filePath, typeArg.getBegin().get().line, "Implements Type Parameter");
-                                    }
-                                }
-                            }
-                        } catch (Exception e) {
-                            // Ignore unresolved implemented types
-                        }
+                for (ClassOrInterfaceType extendedType : n.getExtendedTypes()) {
+                    try {
+                        addTypeReference(extendedType, "Extends", "Extends Type Parameter");
+                    } catch (Exception e) {
+                        // Ignore unresolved extended types
                     }
                 }
-
-                // Handle type parameters
-                for (var typeParam : n.getTypeParameters()) {
-                    for (var bound : typeParam.getTypeBound()) {
-                        try {
-                            String boundName = bound.getNameAsString();
-                            analyzer.addClassReference(boundName, filePath, bound.getBegin().get().line, "Type Parameter Bound");
-                        } catch (Exception e) {
-                            // Ignore unresolved type parameter bounds
-                        }
+                for (ClassOrInterfaceType implementedType : n.getImplementedTypes()) {
+                    try {
+                        addTypeReference(implementedType, "Implements", "Implements Type Parameter");
+                    } catch (Exception e) {
+                        // Ignore unresolved implemented types
                     }
                 }
+                addTypeBounds(n.getTypeParameters(), "Type Parameter Bound");
             } catch (Exception e) {
-                logger.warn("Error processing class references in {}:{}", filePath, n.getBegin().get().line);
+                diagnostics.record("Class Declaration", e, filePath, n.getBegin().get().line, n.getNameAsString());
             }
         }
 
         @Override
-        public void visit(FieldDeclaration n, Void arg) {
-            super.visit(n, arg);
+        public void visit(MethodDeclaration n, Void arg) {
+            visitMember(n, MethodIdentifiers.methodIdentifier(n), () -> super.visit(n, arg));
             try {
-                Type type = n.getElementType();
-                if (type.isClassOrInterfaceType()) {
-                    String className = type.asClassOrInterfaceType().getNameAsString();
-                    analyzer.addClassReference(className, filePath, type.getBegin().get().line, "Field Type");
-                    // Handle type parameters in field type
-                    if (type.asClassOrInterfaceType().getTypeArguments().isPresent()) {
-                        for (var typeArg : type.asClassOrInterfaceType().getTypeArguments().get()) {
-                            if (typeArg.isClassOrInterfaceType()) {
-                                String typeArgName = typeArg.asClassOrInterfaceType().getNameAsString();
-                                analyzer.addClassReference(typeArgName, filePath, typeArg.getBegin().get().line, "Field Type Parameter");
-                            }
-                        }
-                    }
+                addTypeReference(n.getType(), "Return Type", "Return Type Parameter");
+                for (Parameter param : n.getParameters()) {
+                    addTypeReference(param.getType(), "Parameter Type", "Parameter Type Parameter");
                 }
+                addTypeBounds(n.getTypeParameters(), "Method Type Parameter Bound");
+            } catch (Exception e) {
+                // Ignore unresolved method types
+            }
+        }
+
+        @Override
+        public void visit(ConstructorDeclaration n, Void arg) {
+            visitMember(n, MethodIdentifiers.constructorIdentifier(n), () -> super.visit(n, arg));
+        }
+
+        @Override
+        public void visit(InitializerDeclaration n, Void arg) {
+            visitMember(n, MethodIdentifiers.initializerIdentifier(n, n.isStatic()), () -> super.visit(n, arg));
+        }
+
+        @Override
+        public void visit(FieldDeclaration n, Void arg) {
+            visitMember(n, MethodIdentifiers.initializerIdentifier(n, n.isStatic()), () -> super.visit(n, arg));
+            try {
+                addTypeReference(n.getElementType(), "Field Type", "Field Type Parameter");
             } catch (Exception e) {
                 // Ignore unresolved field types
             }
         }
 
         @Override
-        public void visit(MethodDeclaration n, Void arg) {
+        public void visit(MethodCallExpr n, Void arg) {
             super.visit(n, arg);
             try {
-                // Handle return type
-                Type returnType = n.getType();
-                if (returnType.isClassOrInterfaceType()) {
-                    String className = returnType.asClassOrInterfaceType().getNameAsString();
-                    analyzer.addClassReference(className, filePath, returnType.getBegin().get().line, "Return Type");
-                    // Handle type parameters in return type
-                    if (returnType.asClassOrInterfaceType().getTypeArguments().isPresent()) {
-                        for (var typeArg : returnType.asClassOrInterfaceType().getTypeArguments().get()) {
-                            if (typeArg.isClassOrInterfaceType()) {
-                                String typeArgName = typeArg.asClassOrInterfaceType().getNameAsString();
-                                analyzer.addClassReference(typeArgName, filePath, typeArg.getBegin().get().line, "Return Type Parameter");
-                            }
-                        }
-                    }
-                }
-
-                // Handle parameters
-                for (Parameter param : n.getParameters()) {
-                    Type paramType = param.getType();
-                    if (paramType.isClassOrInterfaceType()) {
-                        String className = paramType.asClassOrInterfaceType().getNameAsString();
-                        analyzer.addClassReference(className, filePath, paramType.getBegin().get().line, "Parameter Type");
-                        // Handle type parameters in parameter type
-                        if (paramType.asClassOrInterfaceType().getTypeArguments().isPresent()) {
-                            for (var typeArg : paramType.asClassOrInterfaceType().getTypeArguments().get()) {
-                                if (typeArg.isClassOrInterfaceType()) {
-                                    String typeArgName = typeArg.asClassOrInterfaceType().getNameAsString();
-                                    analyzer.addClassReference(typeArgName, filePath, typeArg.getBegin().get().line, "Parameter Type Parameter");
-                                }
-                            }
-                        }
-                    }
-                }
-
-                // Handle type parameters
-                for (var typeParam : n.getTypeParameters()) {
-                    for (var bound : typeParam.getTypeBound()) {
-                        try {
-                            String boundName = bound.getNameAsString();
-                            analyzer.addClassReference(boundName, filePath, bound.getBegin().get().line, "Method Type Parameter Bound");
-                        } catch (Exception e) {
-                            // Ignore unresolved type parameter bounds
-                        }
-                    }
+                ResolutionCache.ResolvedTarget method = resolutionCache.resolve(n, symbolSolver);
+                if (method == null) {
+                    metrics.recordResolution("Method Call", false);
+                    diagnostics.record("Method Call", ResolutionDiagnostics.Cause.NO_MATCHING_DECLARATION, n.getNameAsString(),
+                        filePath, n.getBegin().get().line, n.getNameAsString());
+                    return;
                 }
+                references.addMethodCall(method.getIdentifier(), n.getBegin().get().line, enclosingMembers.peek());
+                metrics.recordResolution("Method Call", true);
             } catch (Exception e) {
-                // Ignore unresolved method types
+                metrics.recordResolution("Method Call", false);
+                diagnostics.record("Method Call", e, filePath, n.getBegin().get().line, n.getNameAsString());
             }
         }
 
         @Override
         public void visit(ObjectCreationExpr n, Void arg) {
             super.visit(n, arg);
+            int line = n.getBegin().get().line;
+            ResolutionCache.ResolvedTarget constructor = null;
             try {
-                String className = n.getType().getNameAsString();
-                analyzer.addClassReference(className, filePath, n.getBegin().get().line, "Object Creation");
-                // Handle type parameters in object creation
-                if (n.getType().getTypeArguments().isPresent()) {
-                    for (var typeArg : n.getType().getTypeArguments().get()) {
-                        if (typeArg.isClassOrInterfaceType()) {
-                            String typeArgName = typeArg.asClassOrInterfaceType().getNameAsString();
-                            analyzer.addClassReference(typeArgName, filePath, typeArg.getBegin().get().line, "Object Creation Type Parameter");
-                        }
-                    }
+                // Same identifiers as the declarations used as sources, so that calls chain in the reference graph
+                constructor = resolutionCache.resolve(n, symbolSolver);
+                if (constructor == null) {
+                    diagnostics.record("Constructor Call", ResolutionDiagnostics.Cause.NO_MATCHING_DECLARATION,
+                        n.getType().getNameAsString(), filePath, line, n.getType().getNameAsString());
                 }
+            } catch (Exception e) {
+                diagnostics.record("Constructor Call", e, filePath, line, n.getType().getNameAsString());
+            }
+            metrics.recordResolution("Constructor Call", constructor != null);
+            if (constructor != null) {
+                references.addMethodReference(constructor.getIdentifier(), line, "Constructor Call", enclosingMembers.peek());
+            } else {
+                // Still recorded, from the class name as written and qualified through the imports
+                ClassOrInterfaceType type = n.getType();
+                references.addConstructorReference(qualifiedName(type, type.getNameWithScope()), line, enclosingMembers.peek());
+            }
+            try {
+                addTypeReference(n.getType(), "Object Creation", "Object Creation Type Parameter");
             } catch (Exception e) {
                 // Ignore unresolved object creation expressions
             }
@@ -364,34 +791,27 @@ public class ReferenceAnalyzerMain {
         @Override
         public void visit(MarkerAnnotationExpr n, Void arg) {
             super.visit(n, arg);
-            try {
-                String annotationName = n.getNameAsString();
-                analyzer.addClassReference(annotationName, filePath, n.getBegin().get().line, "Annotation");
-            } catch (Exception e) {
-                // Ignore unresolved annotations
-            }
+            addAnnotationReference(n);
         }
 
         @Override
         public void visit(NormalAnnotationExpr n, Void arg) {
             super.visit(n, arg);
-            try {
-                String annotationName = n.getNameAsString();
-                analyzer.addClassReference(annotationName, filePath, n.getBegin().get().line, "Annotation");
-            } catch (Exception e) {
-                // Ignore unresolved annotations
-            }
+            addAnnotationReference(n);
         }
 
         @Override
         public void visit(SingleMemberAnnotationExpr n, Void arg) {
             super.visit(n, arg);
+            addAnnotationReference(n);
+        }
+
+        private void addAnnotationReference(AnnotationExpr n) {
             try {
-                String annotationName = n.getNameAsString();
-                analyzer.addClassReference(annotationName, filePath, n.getBegin().get().line, "Annotation");
+                references.addClassReference(qualifiedName(n, n.getNameAsString()), n.getBegin().get().line, "Annotation");
             } catch (Exception e) {
                 // Ignore unresolved annotations
             }
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,205 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+// Immutable directed graph over interned names, in compressed sparse row form: the edges leaving
+// node n are callees[calleeOffsets[n]] up to calleeOffsets[n + 1], sorted and without duplicates.
+// A second CSR holds the reverse edges. For method graphs nodes are method identifiers and edges
+// point from caller to callee; for class graphs they point from the referencing class to the
+// referenced one. Queries do not modify the graph and may run concurrently.
+public class ReferenceGraph {
+    private final SymbolTable names;
+    private final int[] calleeOffsets;
+    private final int[] callees;
+    private final int[] callerOffsets;
+    private final int[] callers;
+
+    private ReferenceGraph(SymbolTable names, int[] calleeOffsets, int[] callees, int[] callerOffsets, int[] callers) {
+        this.names = names;
+        this.calleeOffsets = calleeOffsets;
+        this.callees = callees;
+        this.callerOffsets = callerOffsets;
+        this.callers = callers;
+    }
+
+    public static class Builder {
+        private final SymbolTable names = new SymbolTable();
+        private int[] sources = new int[1024];
+        private int[] targets = new int[1024];
+        private int size;
+
+        public Builder addEdge(String source, String target) {
+            if (size == sources.length) {
+                sources = Arrays.copyOf(sources, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+            }
+            sources[size] = names.intern(source);
+            targets[size] = names.intern(target);
+            size++;
+            return this;
+        }
+
+        public ReferenceGraph build() {
+            int nodes = names.size();
+            // Counting sort of the edges by source, then each row is sorted and deduplicated in place
+            int[] offsets = new int[nodes + 1];
+            for (int i = 0; i < size; i++) {
+                offsets[sources[i] + 1]++;
+            }
+            for (int n = 0; n < nodes; n++) {
+                offsets[n + 1] += offsets[n];
+            }
+            int[] rows = new int[size];
+            int[] next = Arrays.copyOf(offsets, nodes);
+            for (int i = 0; i < size; i++) {
+                rows[next[sources[i]]++] = targets[i];
+            }
+
+            int[] calleeOffsets = new int[nodes + 1];
+            int edges = 0;
+            for (int n = 0; n < nodes; n++) {
+                Arrays.sort(rows, offsets[n], offsets[n + 1]);
+                for (int i = offsets[n]; i < offsets[n + 1]; i++) {
+                    if (i == offsets[n] || rows[i] != rows[i - 1]) {
+                        rows[edges++] = rows[i];
+                    }
+                }
+                calleeOffsets[n + 1] = edges;
+            }
+            int[] callees = Arrays.copyOf(rows, edges);
+
+            // Filling the reverse rows in source order leaves every one of them sorted
+            int[] callerOffsets = new int[nodes + 1];
+            for (int i = 0; i < edges; i++) {
+                callerOffsets[callees[i] + 1]++;
+            }
+            for (int n = 0; n < nodes; n++) {
+                callerOffsets[n + 1] += callerOffsets[n];
+            }
+            int[] callers = new int[edges];
+            next = Arrays.copyOf(callerOffsets, nodes);
+            for (int n = 0; n < nodes; n++) {
+                for (int i = calleeOffsets[n]; i < calleeOffsets[n + 1]; i++) {
+                    callers[next[callees[i]]++] = n;
+                }
+            }
+            return new ReferenceGraph(names, calleeOffsets, callees, callerOffsets, callers);
+        }
+    }
+
+    public int getNodeCount() {
+        return names.size();
+    }
+
+    public int getEdgeCount() {
+        return callees.length;
+    }
+
+    // Node id of the name, or -1 when it is not part of the graph
+    public int nodeId(String name) {
+        return names.find(name);
+    }
+
+    public String nodeName(int node) {
+        return names.get(node);
+    }
+
+    public void forEachCallee(int node, IntConsumer consumer) {
+        for (int i = calleeOffsets[node]; i < calleeOffsets[node + 1]; i++) {
+            consumer.accept(callees[i]);
+        }
+    }
+
+    public void forEachCaller(int node, IntConsumer consumer) {
+        for (int i = callerOffsets[node]; i < callerOffsets[node + 1]; i++) {
+            consumer.accept(callers[i]);
+        }
+    }
+
+    // Copy of the node's callee ids, in ascending order
+    public int[] calleeIds(int node) {
+        return Arrays.copyOfRange(callees, calleeOffsets[node], calleeOffsets[node + 1]);
+    }
+
+    public List<String> calleesOf(String name) {
+        return neighbours(name, calleeOffsets, callees);
+    }
+
+    public List<String> callersOf(String name) {
+        return neighbours(name, callerOffsets, callers);
+    }
+
+    // Everything reachable from the node in at most maxDepth steps, nearest first, excluding the node itself
+    public List<String> transitiveCallees(String name, int maxDepth) {
+        return reachable(name, maxDepth, calleeOffsets, callees);
+    }
+
+    public List<String> transitiveCallers(String name, int maxDepth) {
+        return reachable(name, maxDepth, callerOffsets, callers);
+    }
+
+    public int[] transitiveCalleeIds(int node, int maxDepth) {
+        return reachable(node, maxDepth, calleeOffsets, callees);
+    }
+
+    public int[] transitiveCallerIds(int node, int maxDepth) {
+        return reachable(node, maxDepth, callerOffsets, callers);
+    }
+
+    private List<String> neighbours(String name, int[] offsets, int[] edges) {
+        int node = names.find(name);
+        if (node < 0) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>(offsets[node + 1] - offsets[node]);
+        for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+            result.add(names.get(edges[i]));
+        }
+        return result;
+    }
+
+    private List<String> reachable(String name, int maxDepth, int[] offsets, int[] edges) {
+        int node = names.find(name);
+        if (node < 0) {
+            return Collections.emptyList();
+        }
+        int[] ids = reachable(node, maxDepth, offsets, edges);
+        List<String> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(names.get(id));
+        }
+        return result;
+    }
+
+    // Breadth-first search; the queue doubles as the result, in discovery order
+    private static int[] reachable(int start, int maxDepth, int[] offsets, int[] edges) {
+        BitSet visited = new BitSet();
+        visited.set(start);
+        int[] queue = new int[16];
+        queue[0] = start;
+        int size = 1;
+        int head = 0;
+        for (int depth = 0; depth < maxDepth && head < size; depth++) {
+            int levelEnd = size;
+            for (; head < levelEnd; head++) {
+                int node = queue[head];
+                for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                    int next = edges[i];
+                    if (!visited.get(next)) {
+                        visited.set(next);
+                        if (size == queue.length) {
+                            queue = Arrays.copyOf(queue, size * 2);
+                        }
+                        queue[size++] = next;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOfRange(queue, 1, size);
+    }
+}
@@ -0,0 +1,189 @@
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Read-only, memory-mapped view of an index written by ReferenceIndexWriter. Lookups binary-search
+// the sorted string table and then read a contiguous slice of one of the sorted sections.
+public class ReferenceIndex implements Closeable {
+    private final FileChannel channel;
+    private final int stringCount;
+    private final int recordCount;
+    private final ByteBuffer stringOffsets;
+    private final ByteBuffer stringData;
+    private final ByteBuffer records;
+    private final ByteBuffer targetOffsets;
+    private final ByteBuffer fileIndex;
+    private final ByteBuffer fileOffsets;
+    private final ByteBuffer kindIndex;
+    private final ByteBuffer kindOffsets;
+
+    public static class Reference {
+        private final ReferenceIndex index;
+        private final int record;
+
+        Reference(ReferenceIndex index, int record) {
+            this.index = index;
+            this.record = record;
+        }
+
+        public String getTarget() {
+            return index.string(index.records.getInt(record * ReferenceIndexWriter.RECORD_SIZE));
+        }
+
+        public String getFile() {
+            return index.string(index.records.getInt(record * ReferenceIndexWriter.RECORD_SIZE + 4));
+        }
+
+        public int getLineNumber() {
+            return index.records.getInt(record * ReferenceIndexWriter.RECORD_SIZE + 8);
+        }
+
+        public String getKind() {
+            return index.string(index.records.getInt(record * ReferenceIndexWriter.RECORD_SIZE + 12));
+        }
+
+        @Override
+        public String toString() {
+            return getKind() + " " + getTarget() + " at " + getFile() + ":" + getLineNumber();
+        }
+    }
+
+    public static ReferenceIndex open(Path indexFile) throws IOException {
+        return new ReferenceIndex(FileChannel.open(indexFile, StandardOpenOption.READ));
+    }
+
+    private ReferenceIndex(FileChannel channel) throws IOException {
+        this.channel = channel;
+        try {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, ReferenceIndexWriter.HEADER_SIZE);
+            if (header.getInt() != ReferenceIndexWriter.MAGIC) {
+                throw new IOException("Not a reference index file");
+            }
+            int version = header.getInt();
+            if (version != ReferenceIndexWriter.VERSION) {
+                throw new IOException("Unsupported reference index version: " + version);
+            }
+            stringCount = header.getInt();
+            recordCount = header.getInt();
+            long stringOffsetsStart = header.getLong();
+            long stringDataStart = header.getLong();
+            long recordsStart = header.getLong();
+            long targetOffsetsStart = header.getLong();
+            long fileIndexStart = header.getLong();
+            long fileOffsetsStart = header.getLong();
+            long kindIndexStart = header.getLong();
+            long kindOffsetsStart = header.getLong();
+
+            long offsetsLength = 4L * (stringCount + 1);
+            long indexLength = 4L * recordCount;
+            stringOffsets = map(stringOffsetsStart, offsetsLength);
+            stringData = map(stringDataStart, stringOffsets.getInt(stringCount * 4));
+            records = map(recordsStart, (long) ReferenceIndexWriter.RECORD_SIZE * recordCount);
+            targetOffsets = map(targetOffsetsStart, offsetsLength);
+            fileIndex = map(fileIndexStart, indexLength);
+            fileOffsets = map(fileOffsetsStart, offsetsLength);
+            kindIndex = map(kindIndexStart, indexLength);
+            kindOffsets = map(kindOffsetsStart, offsetsLength);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private MappedByteBuffer map(long start, long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+    }
+
+    public int size() {
+        return recordCount;
+    }
+
+    // References whose target is the given method identifier or class name
+    public List<Reference> referencesTo(String target) {
+        int id = find(target);
+        if (id < 0) {
+            return new ArrayList<>();
+        }
+        List<Reference> result = new ArrayList<>();
+        for (int record = targetOffsets.getInt(id * 4); record < targetOffsets.getInt((id + 1) * 4); record++) {
+            result.add(new Reference(this, record));
+        }
+        return result;
+    }
+
+    // References located in the given source file, ordered by line
+    public List<Reference> referencesFrom(String file) {
+        return slice(find(file), fileIndex, fileOffsets);
+    }
+
+    // References of the given kind, e.g. "Static Method Call" or "Field Type"
+    public List<Reference> referencesOfKind(String kind) {
+        return slice(find(kind), kindIndex, kindOffsets);
+    }
+
+    private List<Reference> slice(int id, ByteBuffer index, ByteBuffer offsets) {
+        List<Reference> result = new ArrayList<>();
+        if (id < 0) {
+            return result;
+        }
+        for (int i = offsets.getInt(id * 4); i < offsets.getInt((id + 1) * 4); i++) {
+            result.add(new Reference(this, index.getInt(i * 4)));
+        }
+        return result;
+    }
+
+    // Binary search over the string table, comparing unsigned UTF-8 bytes like the writer's sort
+    private int find(String value) {
+        byte[] key = value.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = stringCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(mid, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int compare(int id, byte[] key) {
+        int start = stringOffsets.getInt(id * 4);
+        int length = stringOffsets.getInt((id + 1) * 4) - start;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Integer.compare(stringData.get(start + i) & 0xFF, key[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private String string(int id) {
+        int start = stringOffsets.getInt(id * 4);
+        int length = stringOffsets.getInt((id + 1) * 4) - start;
+        byte[] bytes = new byte[length];
+        // Absolute bulk get(int, byte[]) needs Java 13; a duplicate keeps the shared buffer's position untouched
+        stringData.duplicate().position(start).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,178 @@
+package com.example;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Collects references and writes them in the binary layout read by ReferenceIndex:
+//
+//   header    magic, version, string count, record count, then the offset of every section
+//   strings   (count + 1) byte offsets followed by the UTF-8 bytes, sorted by byte order
+//   records   fixed-width (target, file, line, kind) ints sorted by target, file and line
+//   by target (count + 1) record offsets per string id
+//   by file   record numbers sorted by file and line, then (count + 1) offsets per string id
+//   by kind   record numbers sorted by kind, then (count + 1) offsets per string id
+public class ReferenceIndexWriter {
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceIndexWriter.class);
+    static final int MAGIC = 0x52494458;
+    static final int VERSION = 1;
+    static final int RECORD_SIZE = 16;
+    static final int HEADER_SIZE = 4 * 4 + 8 * 8;
+
+    private final SymbolTable strings = new SymbolTable();
+    private int[] records = new int[4 * 1024];
+    private int recordCount;
+
+    public void add(String target, String file, int lineNumber, String kind) {
+        if (recordCount * 4 == records.length) {
+            records = Arrays.copyOf(records, records.length * 2);
+        }
+        int base = recordCount * 4;
+        records[base] = strings.intern(target);
+        records[base + 1] = strings.intern(file);
+        records[base + 2] = lineNumber;
+        records[base + 3] = strings.intern(kind);
+        recordCount++;
+    }
+
+    public int size() {
+        return recordCount;
+    }
+
+    public void write(Path indexFile) throws IOException {
+        int stringCount = strings.size();
+
+        // Renumber strings so that ids follow the UTF-8 byte order the reader binary-searches
+        byte[][] encoded = new byte[stringCount][];
+        Integer[] order = new Integer[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(encoded[a], encoded[b]));
+        int[] sortedId = new int[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            sortedId[order[i]] = i;
+        }
+        int[] remapped = new int[recordCount * 4];
+        for (int r = 0; r < recordCount; r++) {
+            int base = r * 4;
+            remapped[base] = sortedId[records[base]];
+            remapped[base + 1] = sortedId[records[base + 1]];
+            remapped[base + 2] = records[base + 2];
+            remapped[base + 3] = sortedId[records[base + 3]];
+        }
+
+        Integer[] byTarget = sortedRecords(remapped, 0, 1, 2);
+        Integer[] byFile = sortedRecords(remapped, 1, 2, 0);
+        Integer[] byKind = sortedRecords(remapped, 3, 0, 1);
+
+        long stringOffsetsStart = HEADER_SIZE;
+        long stringDataStart = stringOffsetsStart + 4L * (stringCount + 1);
+        long stringDataLength = 0;
+        for (byte[] bytes : encoded) {
+            stringDataLength += bytes.length;
+        }
+        long recordsStart = align(stringDataStart + stringDataLength);
+        long targetOffsetsStart = recordsStart + (long) RECORD_SIZE * recordCount;
+        long fileIndexStart = targetOffsetsStart + 4L * (stringCount + 1);
+        long fileOffsetsStart = fileIndexStart + 4L * recordCount;
+        long kindIndexStart = fileOffsetsStart + 4L * (stringCount + 1);
+        long kindOffsetsStart = kindIndexStart + 4L * recordCount;
+
+        Files.createDirectories(indexFile.toAbsolutePath().getParent());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(stringCount);
+            out.writeInt(recordCount);
+            out.writeLong(stringOffsetsStart);
+            out.writeLong(stringDataStart);
+            out.writeLong(recordsStart);
+            out.writeLong(targetOffsetsStart);
+            out.writeLong(fileIndexStart);
+            out.writeLong(fileOffsetsStart);
+            out.writeLong(kindIndexStart);
+            out.writeLong(kindOffsetsStart);
+
+            int offset = 0;
+            for (int i = 0; i < stringCount; i++) {
+                out.writeInt(offset);
+                offset += encoded[order[i]].length;
+            }
+            out.writeInt(offset);
+            for (int i = 0; i < stringCount; i++) {
+                out.write(encoded[order[i]]);
+            }
+            for (long padding = recordsStart - (stringDataStart + stringDataLength); padding > 0; padding--) {
+                out.writeByte(0);
+            }
+
+            for (Integer record : byTarget) {
+                int base = record * 4;
+                out.writeInt(remapped[base]);
+                out.writeInt(remapped[base + 1]);
+                out.writeInt(remapped[base + 2]);
+                out.writeInt(remapped[base + 3]);
+            }
+            // Records are written in target order, so the target offsets index the record section directly
+            writeOffsets(out, remapped, byTarget, 0, stringCount);
+
+            // The file and kind indexes refer to record numbers in the written (target) order
+            int[] position = new int[recordCount];
+            for (int i = 0; i < recordCount; i++) {
+                position[byTarget[i]] = i;
+            }
+            for (Integer record : byFile) {
+                out.writeInt(position[record]);
+            }
+            writeOffsets(out, remapped, byFile, 1, stringCount);
+            for (Integer record : byKind) {
+                out.writeInt(position[record]);
+            }
+            writeOffsets(out, remapped, byKind, 3, stringCount);
+        }
+        logger.info("Wrote reference index with {} references and {} strings to {}", recordCount, stringCount, indexFile);
+    }
+
+    private Integer[] sortedRecords(int[] remapped, int first, int second, int third) {
+        Integer[] order = new Integer[recordCount];
+        for (int i = 0; i < recordCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int result = Integer.compare(remapped[a * 4 + first], remapped[b * 4 + first]);
+            if (result == 0) {
+                result = Integer.compare(remapped[a * 4 + second], remapped[b * 4 + second]);
+            }
+            if (result == 0) {
+                result = Integer.compare(remapped[a * 4 + third], remapped[b * 4 + third]);
+            }
+            return result;
+        });
+        return order;
+    }
+
+    // offsets[id] is the first position in the sorted order whose key column equals id
+    private static void writeOffsets(DataOutputStream out, int[] remapped, Integer[] sorted, int column, int stringCount)
+            throws IOException {
+        int position = 0;
+        for (int id = 0; id <= stringCount; id++) {
+            while (position < sorted.length && remapped[sorted[position] * 4 + column] < id) {
+                position++;
+            }
+            out.writeInt(position);
+        }
+    }
+
+    private static long align(long offset) {
+        return (offset + 3) & ~3L;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+// Receives the references of the analyzed files as they are merged: one file at a time, in file
+// order and always on the same thread. Method calls, constructor calls and method references all
+// arrive as method references whose type is the one printed in the result files ("Method Call",
+// "Constructor Call", ...); the source is the identifier of the member containing the reference,
+// or null when unknown. Several sinks can be fed by one analysis through fanOut.
+public interface ReferenceSink extends Closeable {
+    // Reused files were replayed from the incremental manifest instead of being analyzed again
+    default void beginFile(Path filePath, boolean reused) {
+    }
+
+    void methodReference(String reference, Path filePath, int lineNumber, String type, String source);
+
+    default void constructorDefinition(String className, Path filePath, int lineNumber) {
+    }
+
+    default void classDefinition(String qualifiedName, Path filePath, int lineNumber) {
+    }
+
+    default void classReference(String className, Path filePath, int lineNumber, String type) {
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+
+    static ReferenceSink fanOut(List<ReferenceSink> sinks) {
+        return sinks.size() == 1 ? sinks.get(0) : new FanOutReferenceSink(sinks);
+    }
+}
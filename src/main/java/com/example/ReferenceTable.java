@@ -0,0 +1,50 @@
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Reference records stored column-wise: the target, file, kind and source columns hold SymbolTable
+// ids, the line column holds the line number. The source is the member containing the reference,
+// or -1 when it is unknown. Records are numbered from 0 in the order they were added.
+public interface ReferenceTable extends Closeable {
+    default int add(int target, int file, int line, int kind) {
+        return add(target, file, line, kind, -1);
+    }
+
+    // Returns the record number of the added reference
+    int add(int target, int file, int line, int kind, int source);
+
+    int size();
+
+    int getTarget(int record);
+
+    int getFile(int record);
+
+    int getLine(int record);
+
+    int getKind(int record);
+
+    int getSource(int record);
+
+    void clear();
+
+    // Releases the memory or files behind the table; it must not be used afterwards
+    @Override
+    default void close() {
+    }
+
+    // The table the options ask for; name distinguishes the files of the tables of one run
+    static ReferenceTable create(AnalyzerOptions options, String name) throws IOException {
+        if (options.getOffHeapDir() != null) {
+            Path directory = Files.createDirectories(Paths.get(options.getOffHeapDir()));
+            return OffHeapReferenceTable.mapped(directory.resolve(name + ".refs"));
+        }
+        if (options.isOffHeap()) {
+            return OffHeapReferenceTable.direct();
+        }
+        return new HeapReferenceTable();
+    }
+}
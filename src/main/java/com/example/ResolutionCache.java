@@ -0,0 +1,253 @@
+package com.example;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.nodeTypes.NodeWithArguments;
+import com.github.javaparser.resolution.declarations.ResolvedConstructorDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.resolution.types.ResolvedType;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+
+// Memoizes symbol solver results for call sites that share the same scope type, method name and
+// argument types, so repeated calls such as logger.debug(String, Object) are only resolved once.
+// Entries only hold the formatted results, never the resolved declarations, so a single cache can
+// be shared between analyzers and worker threads that each own their own type solver.
+public class ResolutionCache {
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+    private static final ResolutionCache shared = new ResolutionCache(DEFAULT_MAX_ENTRIES);
+    private static final AnalyzerMetrics metrics = AnalyzerMetrics.getShared();
+
+    private final ClockCache<ResolvedTarget> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder uncacheable = new LongAdder();
+
+    public static ResolutionCache getShared() {
+        return shared;
+    }
+
+    public ResolutionCache(int maxEntries) {
+        // Lookups do not lock, since all workers resolve through the shared cache
+        this.entries = new ClockCache<>(maxEntries);
+    }
+
+    public static class ResolvedTarget {
+        final String qualifiedName;
+        final String identifier;
+        final boolean isStatic;
+
+        ResolvedTarget(String qualifiedName, String identifier, boolean isStatic) {
+            this.qualifiedName = qualifiedName;
+            this.identifier = identifier;
+            this.isStatic = isStatic;
+        }
+
+        public String getQualifiedName() {
+            return qualifiedName;
+        }
+
+        public String getIdentifier() {
+            return identifier;
+        }
+
+        public boolean isStatic() {
+            return isStatic;
+        }
+    }
+
+    // Returns null when the symbol solver cannot resolve the call
+    public ResolvedTarget resolve(MethodCallExpr n, JavaParserFacade symbolSolver) {
+        // Timed as the resolution phase, including cache hits
+        long start = System.nanoTime();
+        try {
+            String key = methodCallKey(n, symbolSolver);
+            ResolvedTarget cached = lookup(key);
+            if (cached != null) {
+                return cached;
+            }
+
+            var reference = symbolSolver.solve(n);
+            if (!reference.isSolved()) {
+                return null;
+            }
+            ResolvedMethodDeclaration method = reference.getCorrespondingDeclaration();
+            ResolvedTarget target = new ResolvedTarget(method.getQualifiedName(),
+                MethodIdentifiers.formatMethodIdentifier(method), method.isStatic());
+            store(key, target);
+            return target;
+        } finally {
+            metrics.recordPhase(AnalyzerMetrics.Phase.RESOLUTION, start);
+        }
+    }
+
+    // Returns null when the symbol solver cannot resolve the constructor
+    public ResolvedTarget resolve(ObjectCreationExpr n, JavaParserFacade symbolSolver) {
+        // Timed as the resolution phase, including cache hits
+        long start = System.nanoTime();
+        try {
+            String key = constructorCallKey(n, symbolSolver);
+            ResolvedTarget cached = lookup(key);
+            if (cached != null) {
+                return cached;
+            }
+
+            var reference = symbolSolver.solve(n);
+            if (!reference.isSolved()) {
+                return null;
+            }
+            ResolvedConstructorDeclaration constructor = reference.getCorrespondingDeclaration();
+            ResolvedTarget target = new ResolvedTarget(constructor.getQualifiedName(),
+                MethodIdentifiers.formatConstructorIdentifier(constructor), false);
+            store(key, target);
+            return target;
+        } finally {
+            metrics.recordPhase(AnalyzerMetrics.Phase.RESOLUTION, start);
+        }
+    }
+
+    private String methodCallKey(MethodCallExpr n, JavaParserFacade symbolSolver) {
+        try {
+            String scope;
+            if (n.getScope().isPresent()) {
+                scope = scopeKey(n.getScope().get(), symbolSolver);
+            } else {
+                // Unqualified calls resolve against the enclosing type and the file's static imports
+                scope = "this:" + symbolSolver.getTypeOfThisIn(n).describe();
+            }
+            String arguments = argumentsKey(n, symbolSolver);
+            return scope == null || arguments == null ? null : scope + "#" + n.getNameAsString() + arguments;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private String constructorCallKey(ObjectCreationExpr n, JavaParserFacade symbolSolver) {
+        // Anonymous classes are distinct types at every creation site
+        if (n.getAnonymousClassBody().isPresent()) {
+            return null;
+        }
+        try {
+            String arguments = argumentsKey(n, symbolSolver);
+            return arguments == null ? null : "new:" + symbolSolver.getType(n).describe() + arguments;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Returns null for scopes whose type mentions a type variable
+    private String scopeKey(Expression scope, JavaParserFacade symbolSolver) {
+        ResolvedType type;
+        try {
+            type = symbolSolver.getType(scope);
+        } catch (Exception e) {
+            // Type names used as scopes of static calls, which depend on the imports of the file
+            if (scope instanceof NameExpr || scope.isFieldAccessExpr()) {
+                return "static:" + symbolSolver.getTypeOfThisIn(scope).describe() + ":" + scope;
+            }
+            throw e;
+        }
+        return mentionsTypeVariable(type) ? null : "value:" + type.describe();
+    }
+
+    // Returns null for arguments whose type depends on the call being resolved, such as lambdas, or
+    // mentions a type variable
+    private String argumentsKey(NodeWithArguments<?> n, JavaParserFacade symbolSolver) {
+        StringBuilder key = new StringBuilder("(");
+        for (Expression argument : n.getArguments()) {
+            if (argument.isLambdaExpr() || argument.isMethodReferenceExpr()) {
+                return null;
+            }
+            ResolvedType type = symbolSolver.getType(argument);
+            if (mentionsTypeVariable(type)) {
+                return null;
+            }
+            key.append(type.describe()).append(',');
+        }
+        return key.append(')').toString();
+    }
+
+    // A type variable describes as its bare name (T), which means different types in different
+    // declarations, so keys containing one would collide
+    private static boolean mentionsTypeVariable(ResolvedType type) {
+        if (type.isTypeVariable()) {
+            return true;
+        }
+        if (type.isArray()) {
+            return mentionsTypeVariable(type.asArrayType().getComponentType());
+        }
+        if (type.isWildcard()) {
+            return type.asWildcard().isBounded() && mentionsTypeVariable(type.asWildcard().getBoundedType());
+        }
+        if (type.isReferenceType()) {
+            for (ResolvedType parameter : type.asReferenceType().typeParametersValues()) {
+                if (mentionsTypeVariable(parameter)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private ResolvedTarget lookup(String key) {
+        if (key == null) {
+            uncacheable.increment();
+            return null;
+        }
+        ResolvedTarget target = entries.get(key);
+        if (target != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return target;
+    }
+
+    private void store(String key, ResolvedTarget target) {
+        if (key == null) {
+            return;
+        }
+        entries.put(key, target);
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        entries.setMaxEntries(maxEntries);
+    }
+
+    // Entries are only valid for the project whose type solvers produced them
+    public void clear() {
+        entries.clear();
+        hits.reset();
+        misses.reset();
+        uncacheable.reset();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getUncacheable() {
+        return uncacheable.sum();
+    }
+
+    public long getEvictions() {
+        return entries.getEvictions();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d entries, %d hits, %d misses, %d uncacheable, %d evictions",
+            size(), getHits(), getMisses(), getUncacheable(), getEvictions());
+    }
+}
@@ -0,0 +1,205 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.javaparser.resolution.MethodAmbiguityException;
+import com.github.javaparser.resolution.UnsolvedSymbolException;
+
+// Collects resolution failures grouped by reference kind, cause and the symbol that could not be
+// resolved, keeping a count and a few sample locations per group, and writes them as one report at
+// the end of the run. A failure is logged at WARN only when it opens a new group, at most
+// WARNINGS_PER_SECOND times per second; everything else is only counted. Recording never formats
+// the unresolved expression, so the cost of a failure does not depend on the size of its subtree.
+public class ResolutionDiagnostics {
+    private static final Logger logger = LoggerFactory.getLogger(ResolutionDiagnostics.class);
+    private static final ResolutionDiagnostics shared = new ResolutionDiagnostics();
+    static final int SAMPLES_PER_GROUP = 5;
+    static final int WARNINGS_PER_SECOND = 10;
+    // Beyond this many groups, failures are grouped by kind and cause only
+    static final int MAX_GROUPS = 10_000;
+
+    public enum Cause {
+        // A name used as a scope or argument whose type cannot be determined, e.g. an unresolved variable
+        UNKNOWN_SCOPE_TYPE,
+        // A type found neither in the sources nor on the classpath, usually a missing dependency jar
+        MISSING_TYPE,
+        AMBIGUOUS_OVERLOAD,
+        // The symbol solver found no declaration matching the call
+        NO_MATCHING_DECLARATION,
+        // A construct the symbol solver does not support
+        UNSUPPORTED,
+        OTHER
+    }
+
+    private final Map<String, Group> groups = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong warningWindow = new AtomicLong();
+    private final AtomicInteger warningsInWindow = new AtomicInteger();
+    private final LongAdder suppressedWarnings = new LongAdder();
+
+    public static ResolutionDiagnostics getShared() {
+        return shared;
+    }
+
+    private static class Group {
+        final String kind;
+        final Cause cause;
+        final String symbol;
+        final LongAdder count = new LongAdder();
+        final List<String> samples = new ArrayList<>(SAMPLES_PER_GROUP);
+
+        Group(String kind, Cause cause, String symbol) {
+            this.kind = kind;
+            this.cause = cause;
+            this.symbol = symbol;
+        }
+    }
+
+    // A failure with an exception; the cause and symbol are derived from it
+    public void record(String kind, Throwable error, Path filePath, int lineNumber, String name) {
+        Throwable rootCause = error;
+        while (rootCause.getCause() != null && rootCause.getCause() != rootCause
+                && !(rootCause instanceof UnsolvedSymbolException) && !(rootCause instanceof MethodAmbiguityException)) {
+            rootCause = rootCause.getCause();
+        }
+        if (rootCause instanceof MethodAmbiguityException) {
+            record(kind, Cause.AMBIGUOUS_OVERLOAD, name, filePath, lineNumber, name);
+        } else if (rootCause instanceof UnsolvedSymbolException) {
+            String symbol = ((UnsolvedSymbolException) rootCause).getName();
+            record(kind, looksLikeType(symbol) ? Cause.MISSING_TYPE : Cause.UNKNOWN_SCOPE_TYPE, symbol, filePath, lineNumber, name);
+        } else if (rootCause instanceof UnsupportedOperationException) {
+            record(kind, Cause.UNSUPPORTED, rootCause.getClass().getSimpleName(), filePath, lineNumber, name);
+        } else {
+            record(kind, Cause.OTHER, rootCause.getClass().getSimpleName(), filePath, lineNumber, name);
+        }
+    }
+
+    // name is a short label of the reference, e.g. the method name, used in the samples
+    public void record(String kind, Cause cause, String symbol, Path filePath, int lineNumber, String name) {
+        failures.increment();
+        String key = kind + '\u0000' + cause + '\u0000' + symbol;
+        Group group = groups.get(key);
+        boolean created = false;
+        if (group == null) {
+            if (groups.size() >= MAX_GROUPS) {
+                symbol = null;
+                key = kind + '\u0000' + cause;
+            }
+            Group newGroup = new Group(kind, cause, symbol);
+            group = groups.putIfAbsent(key, newGroup);
+            if (group == null) {
+                group = newGroup;
+                created = true;
+            }
+        }
+        group.count.increment();
+        synchronized (group.samples) {
+            if (group.samples.size() < SAMPLES_PER_GROUP) {
+                group.samples.add(filePath + ":" + lineNumber + " " + name);
+            }
+        }
+        if (created) {
+            warn(group, filePath, lineNumber, name);
+        } else {
+            logger.debug("Could not resolve {} {} in {}:{} ({}: {})", kind, name, filePath, lineNumber, cause, symbol);
+        }
+    }
+
+    private void warn(Group group, Path filePath, int lineNumber, String name) {
+        long second = System.nanoTime() / 1_000_000_000L;
+        long window = warningWindow.get();
+        if (window != second && warningWindow.compareAndSet(window, second)) {
+            warningsInWindow.set(0);
+        }
+        if (warningsInWindow.incrementAndGet() > WARNINGS_PER_SECOND) {
+            suppressedWarnings.increment();
+            return;
+        }
+        logger.warn("Could not resolve {} {} in {}:{} ({}{}); further failures like it are only counted",
+            group.kind, name, filePath, lineNumber, group.cause, group.symbol != null ? ": " + group.symbol : "");
+    }
+
+    // Types are written qualified or capitalized, variables and fields in lower camel case
+    private static boolean looksLikeType(String symbol) {
+        return symbol != null && !symbol.isEmpty() && (symbol.indexOf('.') >= 0 || Character.isUpperCase(symbol.charAt(0)));
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    public int getGroupCount() {
+        return groups.size();
+    }
+
+    public void reset() {
+        groups.clear();
+        failures.reset();
+        suppressedWarnings.reset();
+    }
+
+    // Groups are written with the most frequent first
+    public void writeReport(Path reportFile) {
+        List<Group> sorted = new ArrayList<>(groups.values());
+        sorted.sort(Comparator.comparingLong((Group group) -> group.count.sum()).reversed()
+            .thenComparing(group -> group.kind)
+            .thenComparing(group -> group.cause)
+            .thenComparing(group -> group.symbol != null ? group.symbol : ""));
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(reportFile))) {
+            writer.println("{");
+            writer.println("  \"failures\": " + failures.sum() + ",");
+            writer.println("  \"groups\": [");
+            for (int i = 0; i < sorted.size(); i++) {
+                Group group = sorted.get(i);
+                StringBuilder json = new StringBuilder("    {\"kind\": ").append(quote(group.kind))
+                    .append(", \"cause\": ").append(quote(group.cause.name()))
+                    .append(", \"symbol\": ").append(group.symbol != null ? quote(group.symbol) : "null")
+                    .append(", \"count\": ").append(group.count.sum())
+                    .append(", \"samples\": [");
+                synchronized (group.samples) {
+                    for (int j = 0; j < group.samples.size(); j++) {
+                        json.append(j > 0 ? ", " : "").append(quote(group.samples.get(j)));
+                    }
+                }
+                writer.println(json.append("]}").append(i < sorted.size() - 1 ? "," : ""));
+            }
+            writer.println("  ]");
+            writer.println("}");
+        } catch (IOException e) {
+            logger.error("Error writing resolution diagnostics: " + reportFile, e);
+        }
+        if (failures.sum() > 0) {
+            logger.warn("{} references could not be resolved, in {} groups ({} warnings suppressed); see {}",
+                failures.sum(), groups.size(), suppressedWarnings.sum(), reportFile);
+        }
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example;
+
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+
+// View of a type solver that already belongs to a solver chain, so that it can be added to other
+// chains as well: JavaParser solvers accept a parent only once. Only the view takes the new parent;
+// the shared solver keeps resolving the members of its types within its own chain.
+public class SharedTypeSolver implements TypeSolver {
+    private final TypeSolver shared;
+    private TypeSolver parent;
+
+    public SharedTypeSolver(TypeSolver shared) {
+        this.shared = shared;
+    }
+
+    @Override
+    public TypeSolver getParent() {
+        return parent;
+    }
+
+    @Override
+    public void setParent(TypeSolver parent) {
+        this.parent = parent;
+    }
+
+    @Override
+    public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+        return shared.tryToSolveType(name);
+    }
+}
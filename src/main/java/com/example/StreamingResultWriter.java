@@ -0,0 +1,149 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Writes references to the result files as each file's analysis is merged, instead of collecting
+// the whole project in the analyzers first. Only the summary counts and the class definitions
+// (one per declared class, needed for the definition column) are kept; the summary is written as a
+// trailer when the writer is closed. References appear in file order rather than grouped by type.
+public class StreamingResultWriter implements ReferenceSink {
+    private static final Logger logger = LoggerFactory.getLogger(StreamingResultWriter.class);
+
+    private final PrintWriter methodWriter;
+    private final PrintWriter classWriter;
+    private final Set<String> constructorDefinitions = new HashSet<>();
+    private final Map<String, ClassReferenceAnalyzer.ClassInfo> classDefinitions = new HashMap<>();
+    private final Map<String, Integer> classReferencesByType = new LinkedHashMap<>();
+    private int methodReferenceCount;
+    private int classReferenceCount;
+    private int fileCount;
+
+    // The class output path may be null when only method references are extracted
+    public StreamingResultWriter(Path methodOutputPath, Path classOutputPath) throws IOException {
+        methodWriter = new PrintWriter(Files.newBufferedWriter(methodOutputPath));
+        methodWriter.println("Method Reference Analysis Results");
+        methodWriter.println("================================");
+        methodWriter.println();
+        methodWriter.println("Method References:");
+        methodWriter.println("=================");
+
+        if (classOutputPath != null) {
+            classWriter = new PrintWriter(Files.newBufferedWriter(classOutputPath));
+            classWriter.println("Class Reference Analysis Results");
+            classWriter.println("==============================");
+            classWriter.println();
+            classWriter.println("Class References");
+            classWriter.println("================");
+            classWriter.println();
+        } else {
+            classWriter = null;
+        }
+    }
+
+    public void write(FileReferences references) {
+        references.replay(this);
+    }
+
+    @Override
+    public void beginFile(Path filePath, boolean reused) {
+        fileCount++;
+    }
+
+    @Override
+    public void methodReference(String reference, Path filePath, int lineNumber, String type, String source) {
+        writeMethodReference(type, reference, filePath, lineNumber);
+    }
+
+    @Override
+    public void constructorDefinition(String className, Path filePath, int lineNumber) {
+        constructorDefinitions.add(className);
+    }
+
+    @Override
+    public void classDefinition(String qualifiedName, Path filePath, int lineNumber) {
+        if (classWriter != null) {
+            classDefinitions.put(qualifiedName, new ClassReferenceAnalyzer.ClassInfo(qualifiedName, filePath, lineNumber, false));
+        }
+    }
+
+    @Override
+    public void classReference(String className, Path filePath, int lineNumber, String type) {
+        if (classWriter != null) {
+            writeClassReference(className, filePath, lineNumber, type);
+        }
+    }
+
+    private void writeMethodReference(String type, String reference, Path filePath, int lineNumber) {
+        methodWriter.println(MethodReferenceAnalyzer.formatMethodReference(type, reference, filePath, lineNumber));
+        methodReferenceCount++;
+    }
+
+    private void writeClassReference(String className, Path filePath, int lineNumber, String type) {
+        // Like ClassReferenceAnalyzer, only definitions merged before the reference are known
+        ClassReferenceAnalyzer.ClassInfo classDef = classDefinitions.get(className);
+        String definition = classDef != null ? classDef.toString() : className + " (external library)";
+        classWriter.println(ClassReferenceAnalyzer.formatClassReference(type, className, filePath.toString(), definition));
+        classWriter.println();
+        classReferencesByType.merge(type, 1, Integer::sum);
+        classReferenceCount++;
+    }
+
+    public int getMethodReferenceCount() {
+        return methodReferenceCount;
+    }
+
+    public int getClassReferenceCount() {
+        return classReferenceCount;
+    }
+
+    @Override
+    public void close() {
+        methodWriter.println();
+        methodWriter.println("Summary");
+        methodWriter.println("=======");
+        methodWriter.println("Files analyzed: " + fileCount);
+        methodWriter.println("Total method references found: " + methodReferenceCount);
+        methodWriter.println("Total constructor definitions found: " + constructorDefinitions.size());
+        closeWriter(methodWriter, "method");
+
+        if (classWriter != null) {
+            classWriter.println("Class Definitions");
+            classWriter.println("================");
+            classWriter.println();
+            for (ClassReferenceAnalyzer.ClassInfo classDef : classDefinitions.values()) {
+                classWriter.println("Class: " + classDef.qualifiedName);
+                classWriter.println("Location: " + classDef.filePath + ":" + classDef.lineNumber);
+                classWriter.println("Status: Project Class");
+                classWriter.println();
+            }
+
+            classWriter.println("Summary");
+            classWriter.println("=======");
+            classWriter.println("Total class references found: " + classReferenceCount);
+            classWriter.println("Total class definitions found: " + classDefinitions.size());
+            for (Map.Entry<String, Integer> entry : classReferencesByType.entrySet()) {
+                classWriter.println(entry.getKey() + " References: " + entry.getValue());
+            }
+            closeWriter(classWriter, "class");
+        }
+    }
+
+    private static void closeWriter(PrintWriter writer, String name) {
+        // PrintWriter swallows IOExceptions; checkError flushes and reports whether any occurred
+        if (writer.checkError()) {
+            logger.error("Error writing {} reference results", name);
+        }
+        writer.close();
+    }
+}
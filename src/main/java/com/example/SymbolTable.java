@@ -0,0 +1,83 @@
+package com.example;
+
+import java.util.Arrays;
+
+// Interns strings to dense int ids. Ids are assigned in first-seen order and never change. Uses an
+// open-addressing table of ids rather than a HashMap so that a symbol costs one array slot instead
+// of a map entry and a boxed Integer. Not thread-safe.
+public class SymbolTable {
+    private String[] symbols = new String[1024];
+    // id + 1 per slot, 0 marks an empty slot
+    private int[] slots = new int[2048];
+    private int size;
+
+    public int intern(String symbol) {
+        int mask = slots.length - 1;
+        for (int slot = hash(symbol) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0) {
+                return add(symbol, slot);
+            }
+            if (symbols[id].equals(symbol)) {
+                return id;
+            }
+        }
+    }
+
+    // Id of the symbol, or -1 when it was never interned
+    public int find(String symbol) {
+        int mask = slots.length - 1;
+        for (int slot = hash(symbol) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0 || symbols[id].equals(symbol)) {
+                return id;
+            }
+        }
+    }
+
+    public String get(int id) {
+        return symbols[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(symbols, 0, size, null);
+        Arrays.fill(slots, 0);
+        size = 0;
+    }
+
+    private int add(String symbol, int slot) {
+        int id = size++;
+        if (id == symbols.length) {
+            symbols = Arrays.copyOf(symbols, symbols.length * 2);
+        }
+        symbols[id] = symbol;
+        slots[slot] = id + 1;
+        // Keep the load factor at or below one half
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return id;
+    }
+
+    private void rehash(int capacity) {
+        int[] rehashed = new int[capacity];
+        int mask = capacity - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hash(symbols[id]) & mask;
+            while (rehashed[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            rehashed[slot] = id + 1;
+        }
+        slots = rehashed;
+    }
+
+    private static int hash(String symbol) {
+        int h = symbol.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
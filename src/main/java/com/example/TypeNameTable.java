@@ -0,0 +1,243 @@
+package com.example;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.type.TypeParameter;
+
+// Maps the simple type names used in one compilation unit to qualified names, built once per file
+// from its package, its imports and the types it declares, following the precedence of the Java
+// language: type variables and member types in scope at the name, then top-level types declared in
+// the file and single-type imports, then the file's own package, then on-demand imports including
+// java.lang. Whether a package contains a type is answered by the known types predicate (project
+// sources, indexed jars, the JDK), so no symbol solver is involved.
+//
+// resolve returns null when the name is a type variable, is not known in any of those places or
+// matches in more than one on-demand package; only those names need the symbol solver. Type
+// variables and member types only apply within the declarations that introduce them. Member types
+// inherited from supertypes are not seen here, which is why an unknown name is never guessed.
+public class TypeNameTable {
+    private static final Map<String, Boolean> jdkTypes = new ConcurrentHashMap<>();
+
+    private final Predicate<String> knownTypes;
+    private final String packagePrefix;
+    // Simple name to qualified name of the top-level types and single-type imports, or null for
+    // simple names declared or imported more than once
+    private final Map<String, String> declared = new HashMap<>();
+    private final List<String> onDemandPackages;
+    // Member types and type parameters by the declaration that introduces them. Nodes are compared
+    // by identity, since JavaParser nodes are equal when their structure is.
+    private final Map<Node, Map<String, String>> memberTypes = new IdentityHashMap<>();
+    private final Map<Node, Set<String>> typeParameters = new IdentityHashMap<>();
+    // Simple names that mean something else in some scope of the file: member types, local types
+    // and type variables
+    private final Set<String> scopedNames = new HashSet<>();
+    private final Set<String> localTypes = new HashSet<>();
+    private final Map<String, String> resolved = new HashMap<>();
+
+    public TypeNameTable(CompilationUnit cu, Predicate<String> knownTypes) {
+        this.knownTypes = knownTypes;
+        this.packagePrefix = cu.getPackageDeclaration().map(p -> p.getNameAsString() + ".").orElse("");
+
+        for (TypeDeclaration<?> type : cu.getTypes()) {
+            type.getFullyQualifiedName().ifPresent(name -> addDeclared(type.getNameAsString(), name));
+        }
+        for (TypeDeclaration<?> type : cu.findAll(TypeDeclaration.class)) {
+            if (!type.isTopLevelType()) {
+                scopedNames.add(type.getNameAsString());
+            }
+            // Local classes have no qualified name; the symbol solver handles them in their scope
+            if (!type.getFullyQualifiedName().isPresent()) {
+                localTypes.add(type.getNameAsString());
+            }
+            for (BodyDeclaration<?> member : type.getMembers()) {
+                if (member instanceof TypeDeclaration) {
+                    TypeDeclaration<?> memberType = (TypeDeclaration<?>) member;
+                    memberType.getFullyQualifiedName().ifPresent(name ->
+                        memberTypes.computeIfAbsent(type, t -> new HashMap<>()).put(memberType.getNameAsString(), name));
+                }
+            }
+        }
+        List<String> packages = new ArrayList<>();
+        packages.add("java.lang");
+        for (ImportDeclaration importDecl : cu.getImports()) {
+            // Static imports bring in members, and member types are left to the symbol solver
+            if (importDecl.isStatic()) {
+                continue;
+            }
+            String name = importDecl.getNameAsString();
+            if (!importDecl.isAsterisk()) {
+                addDeclared(importDecl.getName().getIdentifier(), name);
+            } else if (!packages.contains(name)) {
+                packages.add(name);
+            }
+        }
+        this.onDemandPackages = packages;
+        for (TypeParameter typeParameter : cu.findAll(TypeParameter.class)) {
+            typeParameter.getParentNode().ifPresent(owner ->
+                typeParameters.computeIfAbsent(owner, o -> new HashSet<>()).add(typeParameter.getNameAsString()));
+            scopedNames.add(typeParameter.getNameAsString());
+        }
+    }
+
+    private void addDeclared(String simpleName, String qualifiedName) {
+        if (declared.containsKey(simpleName) && !qualifiedName.equals(declared.get(simpleName))) {
+            declared.put(simpleName, null);
+        } else {
+            declared.put(simpleName, qualifiedName);
+        }
+    }
+
+    // Qualified name of a simple type name used at the given node, or null when it is a type variable
+    // or the symbol solver has to decide
+    public String resolve(Node at, String simpleName) {
+        if (scopedNames.contains(simpleName)) {
+            for (Node node = at; node != null; node = node.getParentNode().orElse(null)) {
+                Set<String> parameters = typeParameters.get(node);
+                if (parameters != null && parameters.contains(simpleName)) {
+                    return null;
+                }
+                Map<String, String> members = memberTypes.get(node);
+                if (members != null && members.containsKey(simpleName)) {
+                    return members.get(simpleName);
+                }
+            }
+            if (localTypes.contains(simpleName)) {
+                return null;
+            }
+        }
+        return resolve(simpleName);
+    }
+
+    // Qualified name of a simple type name outside any type declaration of the file, or null when the
+    // symbol solver has to decide
+    public String resolve(String simpleName) {
+        String qualifiedName = resolved.get(simpleName);
+        if (qualifiedName == null && !resolved.containsKey(simpleName)) {
+            qualifiedName = lookup(simpleName);
+            resolved.put(simpleName, qualifiedName);
+        }
+        return qualifiedName;
+    }
+
+    private String lookup(String simpleName) {
+        if (declared.containsKey(simpleName)) {
+            return declared.get(simpleName);
+        }
+        String samePackage = packagePrefix + simpleName;
+        if (knownTypes.test(samePackage)) {
+            return samePackage;
+        }
+        String match = null;
+        for (String onDemandPackage : onDemandPackages) {
+            String candidate = onDemandPackage + "." + simpleName;
+            if (knownTypes.test(candidate)) {
+                if (match != null) {
+                    return null;
+                }
+                match = candidate;
+            }
+        }
+        return match;
+    }
+
+    // Qualifies a possibly scoped name as written at the given node, e.g. Map.Entry or java.util.List;
+    // null when its first segment is a type this table cannot resolve
+    public String qualify(Node at, String name) {
+        int dot = name.indexOf('.');
+        String first = dot < 0 ? name : name.substring(0, dot);
+        return qualify(name, dot, resolve(at, first));
+    }
+
+    // Same as qualify(Node, String) for a name used outside any type declaration of the file
+    public String qualify(String name) {
+        int dot = name.indexOf('.');
+        String first = dot < 0 ? name : name.substring(0, dot);
+        return qualify(name, dot, resolve(first));
+    }
+
+    private static String qualify(String name, int dot, String qualifiedFirst) {
+        if (qualifiedFirst != null) {
+            return dot < 0 ? qualifiedFirst : qualifiedFirst + name.substring(dot);
+        }
+        // By convention a lower-case first segment is a package, so the name is already qualified
+        if (dot > 0 && Character.isLowerCase(name.charAt(0))) {
+            return name;
+        }
+        return null;
+    }
+
+    // Whether the simple name is a type variable at the given node, i.e. a type parameter of an
+    // enclosing declaration that no member type closer to the node shadows
+    public boolean isTypeParameter(Node at, String simpleName) {
+        if (!scopedNames.contains(simpleName)) {
+            return false;
+        }
+        for (Node node = at; node != null; node = node.getParentNode().orElse(null)) {
+            Set<String> parameters = typeParameters.get(node);
+            if (parameters != null && parameters.contains(simpleName)) {
+                return true;
+            }
+            Map<String, String> members = memberTypes.get(node);
+            if (members != null && members.containsKey(simpleName)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    // Qualified names of the top-level types of a source tree, derived from the file paths alone
+    public static Set<String> projectTypes(Path sourceRoot, List<Path> javaFiles) {
+        Set<String> types = new HashSet<>();
+        for (Path file : javaFiles) {
+            String relative = sourceRoot.relativize(file).toString();
+            if (relative.endsWith("package-info.java") || relative.endsWith("module-info.java")) {
+                continue;
+            }
+            types.add(relative.substring(0, relative.length() - ".java".length()).replace(file.getFileSystem().getSeparator(), "."));
+        }
+        return types;
+    }
+
+    // Whether the running JDK has the class, for the java and javax packages the reflection type
+    // solver serves. Results are cached since class loading misses are slow.
+    public static boolean isJdkType(String qualifiedName) {
+        if (!qualifiedName.startsWith("java.") && !qualifiedName.startsWith("javax.")) {
+            return false;
+        }
+        return jdkTypes.computeIfAbsent(qualifiedName, TypeNameTable::loadJdkType);
+    }
+
+    private static boolean loadJdkType(String qualifiedName) {
+        if (loadsClass(qualifiedName)) {
+            return true;
+        }
+        // Nested classes are named with dots here and with a $ by the class loader, e.g. java.util.Map.Entry
+        int dot = qualifiedName.lastIndexOf('.');
+        int outerStart = qualifiedName.lastIndexOf('.', dot - 1) + 1;
+        return Character.isUpperCase(qualifiedName.charAt(outerStart))
+            && loadsClass(qualifiedName.substring(0, dot) + "$" + qualifiedName.substring(dot + 1));
+    }
+
+    private static boolean loadsClass(String binaryName) {
+        try {
+            Class.forName(binaryName, false, ClassLoader.getPlatformClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
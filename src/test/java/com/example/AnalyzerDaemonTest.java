@@ -0,0 +1,91 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalyzerDaemonTest {
+    @Test
+    public void testRequestsAreAnsweredWithStatusLines() {
+        AnalyzerDaemon daemon = new AnalyzerDaemon();
+        assertEquals("OK", daemon.handle(List.of("ping")).get(0));
+        assertEquals(List.of("ERROR Unknown command: compile"), daemon.handle(List.of("compile")));
+        assertEquals(List.of("ERROR Missing project path"), daemon.handle(List.of("analyze")));
+        assertTrue(daemon.handle(List.of("analyze", "test-project/rsa-backend", "--threads", "0")).get(0).startsWith("ERROR "));
+    }
+
+    @Test
+    public void testIdleClientDoesNotBlockTheDaemon() throws Exception {
+        AnalyzerDaemon daemon = new AnalyzerDaemon();
+        daemon.requestTimeoutMillis = 200;
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            Thread server = new Thread(() -> daemon.serve(serverSocket));
+            server.start();
+            try (Socket idle = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort())) {
+                // Connects and sends nothing; the daemon closes it once the timeout fires
+                idle.setSoTimeout(5_000);
+                assertEquals(-1, idle.getInputStream().read());
+                assertEquals("OK", request(serverSocket, "ping"));
+            } finally {
+                request(serverSocket, "shutdown");
+                server.join(5_000);
+            }
+            assertFalse(server.isAlive());
+        }
+    }
+
+    @Test
+    public void testTricklingClientDoesNotBlockTheDaemon() throws Exception {
+        AnalyzerDaemon daemon = new AnalyzerDaemon();
+        daemon.requestTimeoutMillis = 300;
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            Thread server = new Thread(() -> daemon.serve(serverSocket));
+            server.start();
+            try (Socket slow = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort())) {
+                // Every byte arrives well within the read timeout, but the request never completes
+                Thread trickle = new Thread(() -> {
+                    try {
+                        OutputStream out = slow.getOutputStream();
+                        for (int i = 0; i < 30; i++) {
+                            out.write('p');
+                            out.flush();
+                            Thread.sleep(100);
+                        }
+                    } catch (IOException | InterruptedException e) {
+                        // The daemon closed the connection
+                    }
+                });
+                trickle.start();
+                Thread.sleep(50);
+
+                long start = System.nanoTime();
+                assertEquals("OK", request(serverSocket, "ping"));
+                assertTrue(System.nanoTime() - start < 1_500_000_000L, "The daemon should drop the slow client at its deadline");
+                trickle.join(5_000);
+            } finally {
+                request(serverSocket, "shutdown");
+                server.join(5_000);
+            }
+            assertFalse(server.isAlive());
+        }
+    }
+
+    private static String request(ServerSocket serverSocket, String command) throws Exception {
+        try (Socket socket = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort())) {
+            socket.setSoTimeout(5_000);
+            OutputStream out = socket.getOutputStream();
+            out.write((command + "\n\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)).readLine();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalyzerMetricsTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testCountersAndReport() throws Exception {
+        AnalyzerMetrics metrics = new AnalyzerMetrics();
+        metrics.recordResolution("Method Call", true);
+        metrics.recordResolution("Method Call", true);
+        metrics.recordResolution("Constructor Call", false);
+        metrics.recordPhase(AnalyzerMetrics.Phase.PARSE, System.nanoTime());
+        metrics.recordFile(System.nanoTime() - 2_500_000);
+
+        assertEquals(2L, metrics.getResolvedByKind().get("Method Call"));
+        assertEquals(1L, metrics.getUnresolvedByKind().get("Constructor Call"));
+        assertEquals(1, metrics.getFilesAnalyzed());
+        // 2.5 ms falls in the bucket below 2^12 microseconds
+        assertEquals(4.096, metrics.getFileMillisPercentile(50), 1e-9);
+
+        Path report = tempDir.resolve("metrics.json");
+        metrics.writeJsonReport(report);
+        String json = Files.readString(report);
+        assertTrue(json.contains("\"parse\": {\"totalMillis\": 0, \"count\": 1}"));
+        assertTrue(json.contains("\"unresolved\": {\"Constructor Call\": 1}"));
+    }
+}
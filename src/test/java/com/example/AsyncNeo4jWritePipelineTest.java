@@ -0,0 +1,102 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.async.AsyncSession;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncNeo4jWritePipelineTest {
+    private static final String QUERY = "UNWIND $rows AS row RETURN row";
+
+    @Test
+    public void testSubmitBlocksOnceThePendingWindowIsFull() throws Exception {
+        List<CompletableFuture<Object>> writes = new CopyOnWriteArrayList<>();
+        Driver driver = driver(() -> {
+            CompletableFuture<Object> write = new CompletableFuture<>();
+            writes.add(write);
+            return write;
+        });
+        AsyncNeo4jWritePipeline pipeline = new AsyncNeo4jWritePipeline(driver, QUERY, 2, 3);
+
+        pipeline.submit(rows(1));
+        pipeline.submit(rows(2));
+        pipeline.submit(rows(3));
+        assertEquals(2, writes.size(), "Only two transactions run at the same time");
+
+        Thread fourth = new Thread(() -> pipeline.submit(rows(4)));
+        fourth.start();
+        fourth.join(200);
+        assertTrue(fourth.isAlive(), "The fourth batch waits for a pending slot");
+
+        // The finished write frees a transaction for the queued batch and a pending slot for the blocked one
+        writes.get(0).complete(null);
+        fourth.join(5_000);
+        assertFalse(fourth.isAlive());
+        assertEquals(3, writes.size());
+
+        writes.get(1).complete(null);
+        writes.get(2).complete(null);
+        assertEquals(4, writes.size());
+        writes.get(3).completeExceptionally(new IllegalStateException("Write failed"));
+
+        pipeline.awaitCompletion();
+        assertEquals(1 + 2 + 3, pipeline.getWrittenRows());
+        assertEquals(4, pipeline.getFailedRows());
+    }
+
+    @Test
+    public void testWritesThatFailToStartReleaseTheirPermits() {
+        Driver driver = driver(() -> {
+            throw new IllegalStateException("Driver closed");
+        });
+        AsyncNeo4jWritePipeline pipeline = new AsyncNeo4jWritePipeline(driver, QUERY, 1, 1);
+
+        pipeline.submit(rows(2));
+        pipeline.submit(rows(3));
+
+        // Would block forever if the failed writes kept their permits
+        pipeline.close();
+        assertEquals(5, pipeline.getFailedRows());
+        assertEquals(0, pipeline.getWrittenRows());
+    }
+
+    private static List<Map<String, Object>> rows(int count) {
+        return Collections.nCopies(count, Map.of("sourceId", "A::a()", "targetId", "B::b()"));
+    }
+
+    // Sessions whose executeWriteAsync returns the next stage from the supplier, or throws what it throws
+    private static Driver driver(Supplier<CompletableFuture<Object>> writes) {
+        AsyncSession session = (AsyncSession) Proxy.newProxyInstance(AsyncSession.class.getClassLoader(),
+            new Class<?>[] {AsyncSession.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "executeWriteAsync":
+                        return writes.get();
+                    case "closeAsync":
+                        return CompletableFuture.completedFuture(null);
+                    case "toString":
+                        return "AsyncSession";
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        return (Driver) Proxy.newProxyInstance(Driver.class.getClassLoader(), new Class<?>[] {Driver.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("session") && args != null && args.length == 1 && args[0] == AsyncSession.class) {
+                    return session;
+                }
+                if (method.getName().equals("toString")) {
+                    return "Driver";
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
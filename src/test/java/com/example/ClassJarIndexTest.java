@@ -0,0 +1,50 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClassJarIndexTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testClassesAreMappedToTheFirstJarContainingThem() throws IOException {
+        Path first = jar("first.jar", "com/acme/Api.class", "com/acme/Api$Builder.class", "module-info.class");
+        Path second = jar("second.jar", "com/acme/Api.class", "org/other/Util.class");
+        Path indexFile = tempDir.resolve("class-index.manifest");
+        List<String> jars = List.of(first.toString(), second.toString());
+
+        ClassJarIndex index = ClassJarIndex.load(indexFile, jars);
+        assertEquals(first, index.findJar("com.acme.Api"));
+        assertEquals(first, index.findJar("com.acme.Api.Builder"));
+        assertEquals(second, index.findJar("org.other.Util"));
+        assertNull(index.findJar("module-info"));
+        assertNull(index.findJar("com.acme.Missing"));
+        assertTrue(Files.exists(indexFile));
+
+        // Reloaded from the persisted index
+        ClassJarIndex reloaded = ClassJarIndex.load(indexFile, jars);
+        assertEquals(index.getClassCount(), reloaded.getClassCount());
+        assertEquals(second, reloaded.findJar("org.other.Util"));
+    }
+
+    private Path jar(String name, String... entries) throws IOException {
+        Path jar = tempDir.resolve(name);
+        try (OutputStream file = Files.newOutputStream(jar); ZipOutputStream zip = new ZipOutputStream(file)) {
+            for (String entry : entries) {
+                zip.putNextEntry(new ZipEntry(entry));
+                zip.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
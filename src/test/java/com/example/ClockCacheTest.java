@@ -0,0 +1,53 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClockCacheTest {
+    @Test
+    public void testUsedEntriesGetASecondChance() {
+        ClockCache<String> cache = new ClockCache<>(3);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.put("c", "C");
+        assertEquals("A", cache.get("a"));
+
+        cache.put("d", "D");
+        assertNull(cache.get("b"), "The first entry not used since the hand passed it is evicted");
+        assertEquals("A", cache.get("a"));
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictions());
+
+        cache.put("e", "E");
+        assertNull(cache.get("c"));
+        assertEquals("A", cache.get("a"));
+        assertEquals("D", cache.get("d"));
+        assertEquals(2, cache.getEvictions());
+    }
+
+    @Test
+    public void testLoweredBoundShrinksTheCache() {
+        ClockCache<String> cache = new ClockCache<>(4);
+        for (String key : new String[] {"a", "b", "c", "d"}) {
+            cache.put(key, key.toUpperCase());
+        }
+        cache.setMaxEntries(2);
+        cache.put("e", "E");
+
+        assertEquals(2, cache.size());
+        assertEquals("E", cache.get("e"));
+        assertEquals(3, cache.getEvictions());
+    }
+
+    @Test
+    public void testPresentKeysKeepTheirValue() {
+        ClockCache<String> cache = new ClockCache<>(2);
+        cache.put("a", "first");
+        cache.put("a", "second");
+
+        assertEquals("first", cache.get("a"));
+        assertEquals(1, cache.size());
+        assertEquals(0, cache.getEvictions());
+    }
+}
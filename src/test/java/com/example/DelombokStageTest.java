@@ -0,0 +1,80 @@
+package com.example;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DelombokStageTest {
+    @TempDir
+    Path projectDir;
+
+    @Test
+    public void testLombokVersionIsReadFromThePom() {
+        Model model = new Model();
+        assertNull(DelombokStage.findLombokVersion(model));
+
+        Dependency lombok = new Dependency();
+        lombok.setGroupId("org.projectlombok");
+        lombok.setArtifactId("lombok");
+        lombok.setVersion("${lombok.version}");
+        model.addDependency(lombok);
+        model.addProperty("lombok.version", "1.18.34");
+        assertEquals("1.18.34", DelombokStage.findLombokVersion(model));
+    }
+
+    @Test
+    public void testOnlyChangedFilesAndFilesUsingOtherTypesAreDelomboked() throws IOException {
+        Path sourcePath = Files.createDirectories(projectDir.resolve("src"));
+        Files.writeString(sourcePath.resolve("A.java"), "@lombok.Getter class A { int value; }");
+        Files.writeString(sourcePath.resolve("B.java"), "@lombok.Data class B { String name; }");
+        Files.writeString(sourcePath.resolve("C.java"), "import lombok.val;\nclass C { void run(A a) { val v = a.getValue(); } }");
+        Path outputPath = DelombokStage.outputPath(projectDir.toString());
+        // Copies the sources, as delombok would write them
+        DelombokStage stage = new DelombokStage(projectDir.toString(), sourcePath, "1.18.34", relativePaths -> {
+            for (String relativePath : relativePaths) {
+                Files.createDirectories(outputPath);
+                Files.copy(sourcePath.resolve(relativePath), outputPath.resolve(relativePath), StandardCopyOption.REPLACE_EXISTING);
+            }
+        });
+
+        assertEquals(List.of("A.java", "B.java", "C.java"), stage.delombok(), "First run processes every file");
+        assertEquals(List.of(), stage.delombok(), "Nothing changed");
+
+        Files.writeString(sourcePath.resolve("A.java"), "@lombok.Getter class A { long value; }");
+        assertEquals(List.of("A.java", "C.java"), stage.delombok(),
+            "The unchanged file using val is processed again, the unchanged @Data file is not");
+    }
+
+    @Test
+    public void testChangedLombokConfigDelomboksEveryFile() throws IOException {
+        Path sourcePath = Files.createDirectories(projectDir.resolve("src"));
+        Files.writeString(sourcePath.resolve("A.java"), "@lombok.Getter class A { int value; }");
+        Files.writeString(sourcePath.resolve("B.java"), "@lombok.Data class B { String name; }");
+        Path projectConfig = Files.writeString(projectDir.resolve("lombok.config"), "lombok.accessors.fluent = false\n");
+        Path outputPath = DelombokStage.outputPath(projectDir.toString());
+        DelombokStage stage = new DelombokStage(projectDir.toString(), sourcePath, "1.18.34", relativePaths -> {
+            for (String relativePath : relativePaths) {
+                Files.createDirectories(outputPath);
+                Files.copy(sourcePath.resolve(relativePath), outputPath.resolve(relativePath), StandardCopyOption.REPLACE_EXISTING);
+            }
+        });
+
+        assertEquals(List.of("A.java", "B.java"), stage.delombok());
+        assertEquals(List.of(), stage.delombok(), "Nothing changed");
+
+        Files.writeString(projectConfig, "lombok.accessors.fluent = true\n");
+        assertEquals(List.of("A.java", "B.java"), stage.delombok(), "A changed config in a parent directory applies to every file");
+        assertEquals(List.of(), stage.delombok());
+
+        Files.writeString(sourcePath.resolve("lombok.config"), "lombok.data.flagUsage = warning\n");
+        assertEquals(List.of("A.java", "B.java"), stage.delombok(), "A new config in the source directory applies to every file");
+    }
+}
@@ -0,0 +1,141 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import com.github.javaparser.JavaParser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalAnalysisTest {
+    @TempDir
+    Path projectDir;
+
+    @Test
+    public void testOnlyChangedAndDependentFilesAreReanalyzed() throws IOException {
+        Path sourceRoot = Files.createDirectories(projectDir.resolve("src"));
+        Path a = write(sourceRoot.resolve("A.java"), "public class A { public int value() { return 1; } }");
+        Path b = write(sourceRoot.resolve("B.java"), "public class B { int read(A a) { return a.value(); } }");
+        Path c = write(sourceRoot.resolve("C.java"), "public class C { void run() { } }");
+        List<Path> javaFiles = List.of(a, b, c);
+
+        assertEquals(javaFiles, run(sourceRoot, javaFiles), "First run analyzes every file");
+        assertEquals(List.of(), run(sourceRoot, javaFiles), "Nothing changed");
+
+        write(a, "public class A { public int value() { return 2; } }");
+        assertEquals(List.of(a), run(sourceRoot, javaFiles), "Body-only change does not affect dependents");
+
+        write(a, "public class A { public long value() { return 2; } }");
+        assertEquals(List.of(a, b), run(sourceRoot, javaFiles), "Signature change re-analyzes files referring to A");
+    }
+
+    @Test
+    public void testUpstreamSignatureChangesReanalyzeDependents() throws IOException {
+        Path sourceRoot = Files.createDirectories(projectDir.resolve("src"));
+        Path a = write(sourceRoot.resolve("A.java"), "package app; public class A { int read(lib.Base base) { return 0; } }");
+        Path b = write(sourceRoot.resolve("B.java"), "package app; public class B { }");
+        List<Path> javaFiles = List.of(a, b);
+        run(sourceRoot, javaFiles);
+
+        assertEquals(List.of(), run(sourceRoot, javaFiles, Set.of("lib.Other", "Other")));
+        assertEquals(List.of(a), run(sourceRoot, javaFiles, Set.of("lib.Base", "Base")),
+            "A changed upstream type re-analyzes the files referring to it");
+
+        write(b, "package app; public class B { void run() { } }");
+        IncrementalAnalysis incremental = IncrementalAnalysis.load(manifest(), sourceRoot, "test");
+        incremental.analyze(javaFiles, Set.of("lib.Base"), (files, consumer) -> files.forEach(path -> {
+            FileReferences references = new FileReferences(path);
+            new JavaParser().parse(path).ifSuccessful(cu -> references.setSignature(FileSignature.of(cu)));
+            consumer.accept(references);
+        }), references -> { });
+        assertTrue(incremental.getChangedTypes().containsAll(Set.of("app.B", "lib.Base")),
+            "Changed types are passed on to the modules downstream, with the upstream ones");
+    }
+
+    @Test
+    public void testUnchangedFilesAreReplayedFromManifest() throws IOException {
+        Path sourceRoot = Files.createDirectories(projectDir.resolve("src"));
+        Path a = write(sourceRoot.resolve("A.java"), "public class A { }");
+        List<Path> javaFiles = List.of(a);
+        run(sourceRoot, javaFiles);
+
+        List<FileReferences> replayed = new ArrayList<>();
+        IncrementalAnalysis.load(manifest(), sourceRoot, "test")
+            .analyze(javaFiles, (files, consumer) -> assertTrue(files.isEmpty(), "No file should be analyzed"), replayed::add);
+
+        assertEquals(1, replayed.size());
+        FileReferences.Entry entry = replayed.get(0).getEntries().get(0);
+        assertEquals("A", entry.name);
+        assertEquals(1, entry.lineNumber);
+    }
+
+    @Test
+    public void testFailedFilesAreRecordedWithoutReferences() throws IOException {
+        Path sourceRoot = Files.createDirectories(projectDir.resolve("src"));
+        Path a = write(sourceRoot.resolve("A.java"), "public class A { }");
+        run(sourceRoot, List.of(a));
+
+        Path b = write(sourceRoot.resolve("B.java"), "public class B { A a; }");
+        write(a, "public class A { void run() { } }");
+        List<Path> javaFiles = List.of(a, b);
+        List<FileReferences> results = new ArrayList<>();
+        IncrementalAnalysis.load(manifest(), sourceRoot, "test").analyze(javaFiles, (files, consumer) -> {
+            // Neither the new file B nor the changed file A produce a result, as when their analysis throws
+        }, results::add);
+
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).getEntries().isEmpty(), "Stale references of a failed changed file are not reused");
+        assertFalse(results.get(0).isReused());
+        assertTrue(results.get(1).getEntries().isEmpty());
+
+        assertEquals(javaFiles, run(sourceRoot, javaFiles), "Failed files are analyzed again on the next run");
+        assertEquals(List.of(), run(sourceRoot, javaFiles));
+    }
+
+    @Test
+    public void testFilesMarkedFailedAreAnalyzedAgain() throws IOException {
+        Path sourceRoot = Files.createDirectories(projectDir.resolve("src"));
+        Path a = write(sourceRoot.resolve("A.java"), "public class A { }");
+        List<Path> javaFiles = List.of(a);
+        IncrementalAnalysis.load(manifest(), sourceRoot, "test").analyze(javaFiles, (files, consumer) -> {
+            // As when the file could not be read
+            FileReferences references = new FileReferences(a);
+            references.markFailed();
+            consumer.accept(references);
+        }, references -> { });
+
+        assertEquals(javaFiles, run(sourceRoot, javaFiles));
+    }
+
+    private List<Path> run(Path sourceRoot, List<Path> javaFiles) throws IOException {
+        return run(sourceRoot, javaFiles, Set.of());
+    }
+
+    private List<Path> run(Path sourceRoot, List<Path> javaFiles, Set<String> upstreamChangedTypes) throws IOException {
+        List<Path> analyzed = new ArrayList<>();
+        IncrementalAnalysis.load(manifest(), sourceRoot, "test").analyze(javaFiles, upstreamChangedTypes, (files, consumer) -> {
+            for (Path path : files) {
+                analyzed.add(path);
+                FileReferences references = new FileReferences(path);
+                new JavaParser().parse(path).ifSuccessful(cu -> references.setSignature(FileSignature.of(cu)));
+                references.addClassDefinition(path.getFileName().toString().replace(".java", ""), 1);
+                consumer.accept(references);
+            }
+        }, references -> { });
+        return analyzed;
+    }
+
+    private Path manifest() {
+        return IncrementalAnalysis.manifestPath(projectDir.toString(), "test");
+    }
+
+    private static Path write(Path path, String content) throws IOException {
+        return Files.writeString(path, content);
+    }
+}
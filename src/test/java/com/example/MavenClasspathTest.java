@@ -0,0 +1,72 @@
+package com.example;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MavenClasspathTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testPropertiesParentsAndTransitiveDependenciesAreResolved() throws IOException {
+        Path repository = tempDir.resolve("repository");
+        pom(repository, "parent", "1",
+            "<properties><lib.version>2.0</lib.version></properties>"
+            + "<dependencyManagement><dependencies>"
+            + dependency("util", "1.5", "")
+            + "</dependencies></dependencyManagement>");
+        pom(repository, "lib", "2.0", "<dependencies>"
+            + dependency("util", "1.0", "")
+            + dependency("optional", "1.0", "<optional>true</optional>")
+            + dependency("testing", "1.0", "<scope>test</scope>")
+            + "</dependencies>");
+        Path lib = jar(repository, "lib", "2.0");
+        Path util = jar(repository, "util", "1.5");
+        jar(repository, "util", "1.0");
+        jar(repository, "optional", "1.0");
+        jar(repository, "testing", "1.0");
+
+        Model model = new Model();
+        Parent parent = new Parent();
+        parent.setGroupId("com.acme");
+        parent.setArtifactId("parent");
+        parent.setVersion("1");
+        model.setParent(parent);
+        model.setArtifactId("app");
+        Dependency dependency = new Dependency();
+        dependency.setGroupId("com.acme");
+        dependency.setArtifactId("lib");
+        dependency.setVersion("${lib.version}");
+        model.addDependency(dependency);
+
+        List<String> jars = new MavenClasspath(repository).resolveJars(tempDir.resolve("app"), model);
+        // The version managed by the parent wins over the one lib asks for
+        assertEquals(List.of(lib.toString(), util.toString()), jars);
+    }
+
+    private static String dependency(String artifactId, String version, String extra) {
+        return "<dependency><groupId>com.acme</groupId><artifactId>" + artifactId + "</artifactId><version>" + version
+            + "</version>" + extra + "</dependency>";
+    }
+
+    private static void pom(Path repository, String artifactId, String version, String content) throws IOException {
+        Path directory = Files.createDirectories(repository.resolve("com/acme").resolve(artifactId).resolve(version));
+        Files.writeString(directory.resolve(artifactId + "-" + version + ".pom"),
+            "<project><modelVersion>4.0.0</modelVersion><groupId>com.acme</groupId><artifactId>" + artifactId
+            + "</artifactId><version>" + version + "</version>" + content + "</project>");
+    }
+
+    private static Path jar(Path repository, String artifactId, String version) throws IOException {
+        Path directory = Files.createDirectories(repository.resolve("com/acme").resolve(artifactId).resolve(version));
+        return Files.write(directory.resolve(artifactId + "-" + version + ".jar"), new byte[0]);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MavenReactorTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testModulesAreOrderedByTheirDependencies() throws Exception {
+        pom(tempDir, "root", "<packaging>pom</packaging><modules><module>web</module><module>service</module>"
+            + "<module>core</module><module>tools</module></modules>");
+        pom(tempDir.resolve("web"), "web", "<dependencies>" + dependency("service", "") + "</dependencies>");
+        pom(tempDir.resolve("service"), "service", "<dependencies>" + dependency("core", "")
+            + dependency("tools", "<scope>test</scope>") + "</dependencies>");
+        pom(tempDir.resolve("core"), "core", "");
+        pom(tempDir.resolve("tools"), "tools", "");
+
+        List<MavenReactor.Module> modules = MavenReactor.load(tempDir).getModules();
+
+        assertEquals(List.of("com.acme:root", "com.acme:core", "com.acme:service", "com.acme:web", "com.acme:tools"),
+            modules.stream().map(MavenReactor.Module::getKey).collect(Collectors.toList()));
+        assertNull(modules.get(0).getSourcePath(), "The aggregator has no sources");
+        assertEquals(tempDir.resolve("web/src/main/java").toAbsolutePath().normalize(), modules.get(3).getSourcePath());
+        assertEquals(List.of(1, 2), modules.get(3).getUpstream(), "Upstream modules are transitive");
+        assertEquals(List.of(), modules.get(4).getUpstream(), "Test dependencies are not followed");
+    }
+
+    @Test
+    public void testDependencyCyclesAreRejected() throws Exception {
+        pom(tempDir, "root", "<packaging>pom</packaging><modules><module>a</module><module>b</module></modules>");
+        pom(tempDir.resolve("a"), "a", "<dependencies>" + dependency("b", "") + "</dependencies>");
+        pom(tempDir.resolve("b"), "b", "<dependencies>" + dependency("a", "") + "</dependencies>");
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> MavenReactor.load(tempDir));
+        assertTrue(error.getMessage().contains("com.acme:a"));
+    }
+
+    private static void pom(Path directory, String artifactId, String content) throws IOException {
+        Files.createDirectories(directory);
+        if (!"root".equals(artifactId)) {
+            Files.createDirectories(directory.resolve("src/main/java"));
+        }
+        Files.writeString(directory.resolve("pom.xml"), "<project><modelVersion>4.0.0</modelVersion>"
+            + ("root".equals(artifactId) ? "<groupId>com.acme</groupId>"
+                : "<parent><groupId>com.acme</groupId><artifactId>root</artifactId><version>1</version></parent>")
+            + "<artifactId>" + artifactId + "</artifactId><version>1</version>" + content + "</project>");
+    }
+
+    private static String dependency(String artifactId, String extra) {
+        return "<dependency><groupId>${project.groupId}</groupId><artifactId>" + artifactId + "</artifactId>"
+            + "<version>${project.version}</version>" + extra + "</dependency>";
+    }
+}
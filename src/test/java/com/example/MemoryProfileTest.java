@@ -0,0 +1,29 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryProfileTest {
+    private static final String SOURCE = "/** Docs */\nclass A {\n    // note\n    void run() {\n        call();\n    }\n}\n";
+
+    @Test
+    public void testLowMemoryDropsCommentsButKeepsLines() {
+        CompilationUnit lean = new JavaParser(MemoryProfile.LOW_MEMORY.parserConfiguration()).parse(SOURCE).getResult().get();
+        assertTrue(lean.getAllContainedComments().isEmpty());
+        assertEquals(5, lean.findFirst(MethodCallExpr.class).get().getBegin().get().line);
+
+        CompilationUnit full = new JavaParser(MemoryProfile.DEFAULT.parserConfiguration()).parse(SOURCE).getResult().get();
+        assertEquals(2, full.getAllContainedComments().size());
+    }
+
+    @Test
+    public void testOptionSelectsProfile() {
+        assertEquals(MemoryProfile.DEFAULT, AnalyzerOptions.parse(new String[] {"project"}, 1).getMemoryProfile());
+        assertEquals(MemoryProfile.LOW_MEMORY, AnalyzerOptions.parse(new String[] {"project", "--low-memory"}, 1).getMemoryProfile());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserMethodDeclaration;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MethodIdentifiersTest {
+    // The regex formulation simplifyTypeName replaced; identifiers must stay byte-identical
+    private static String regexSimplify(String type) {
+        return type.replaceAll("([a-zA-Z0-9_]+\\.)+([a-zA-Z0-9_]+)", "$2").replaceAll("\\s+", "");
+    }
+
+    @Test
+    public void testSimplifyTypeNameMatchesRegex() {
+        String[] types = {
+            "java.util.Map<java.lang.String, java.util.List<com.example.Foo>>",
+            "int[]",
+            "java.lang.String...",
+            "? extends java.lang.Number",
+            "Outer.Inner",
+            "a.b.<",
+            "a..b",
+            "a.b..c.d",
+            " x . y\t",
+            ""
+        };
+        for (String type : types) {
+            assertEquals(regexSimplify(type), MethodIdentifiers.simplifyTypeName(type), type);
+        }
+    }
+
+    @Test
+    public void testCachedIdentifiersKeepOverloadsApart() {
+        CompilationUnit cu = new JavaParser().parse(
+            "class Sample {\n" +
+            "    void log(String message) { }\n" +
+            "    void log(int code) { }\n" +
+            "    void run(StringBuilder builder) {\n" +
+            "        log(\"a\"); log(1); log(\"b\");\n" +
+            "        builder.append(\"a\"); builder.append(1); builder.append(\"b\");\n" +
+            "    }\n" +
+            "}\n").getResult().get();
+        JavaParserFacade symbolSolver = JavaParserFacade.get(new ReflectionTypeSolver());
+        List<MethodCallExpr> calls = cu.findAll(MethodCallExpr.class);
+
+        // Source overloads, keyed by their AST identifier
+        String first = format(symbolSolver, calls.get(0));
+        assertEquals("Sample::log(String)", first);
+        assertEquals("Sample::log(int)", format(symbolSolver, calls.get(1)));
+        assertSame(first, format(symbolSolver, calls.get(2)), "A repeated declaration should be served from the cache");
+
+        // Library overloads, keyed by their JVM descriptor
+        String append = format(symbolSolver, calls.get(3));
+        assertEquals("java.lang.StringBuilder::append(String)", append);
+        assertEquals("java.lang.StringBuilder::append(int)", format(symbolSolver, calls.get(4)));
+        assertSame(append, format(symbolSolver, calls.get(5)), "A repeated declaration should be served from the cache");
+    }
+
+    @Test
+    public void testAnonymousClassMembersDoNotShareTheEnclosingTypesEntry() {
+        CompilationUnit cu = new JavaParser().parse(
+            "package pkg;\n" +
+            "class Launcher {\n" +
+            "    public void run() { }\n" +
+            "    Runnable task() {\n" +
+            "        return new Runnable() { public void run() { } };\n" +
+            "    }\n" +
+            "}\n").getResult().get();
+        ReflectionTypeSolver typeSolver = new ReflectionTypeSolver();
+        List<MethodDeclaration> methods = cu.findAll(MethodDeclaration.class);
+        ResolvedMethodDeclaration outer = new JavaParserMethodDeclaration(methods.get(0), typeSolver);
+        ResolvedMethodDeclaration anonymous = new JavaParserMethodDeclaration(methods.get(2), typeSolver);
+
+        // Both have the AST identifier pkg.Launcher::run(), since anonymous classes have no name
+        String anonymousIdentifier = MethodIdentifiers.formatMethodIdentifier(anonymous);
+        assertEquals("pkg.Launcher::run()", MethodIdentifiers.formatMethodIdentifier(outer));
+        assertNotEquals("pkg.Launcher::run()", anonymousIdentifier);
+        assertNotEquals("pkg.Launcher::run()", MethodIdentifiers.formatMethodIdentifier(anonymous));
+    }
+
+    private static String format(JavaParserFacade symbolSolver, MethodCallExpr call) {
+        ResolvedMethodDeclaration method = symbolSolver.solve(call).getCorrespondingDeclaration();
+        return MethodIdentifiers.formatMethodIdentifier(method);
+    }
+}
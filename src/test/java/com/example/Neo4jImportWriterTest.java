@@ -0,0 +1,77 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Neo4jImportWriterTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testWritesHeadersAndSortedGzippedData() throws IOException {
+        ReferenceGraph methods = new ReferenceGraph.Builder()
+            .addEdge("com.b.B::run()", "com.a.A::call(int, String)")
+            .addEdge("com.b.B::run()", "com.a.A::quote(\"x\")")
+            .addEdge("com.a.A::call(int, String)", "com.b.B::run()")
+            .build();
+        ReferenceGraph classes = new ReferenceGraph.Builder()
+            .addEdge("com.b.B", "com.a.A")
+            .build();
+        new Neo4jImportWriter(tempDir).write(methods, classes);
+
+        assertEquals("id:ID(Method),identifier\n", Files.readString(tempDir.resolve("methods-header.csv")));
+        assertEquals(":START_ID(Method),:END_ID(Method)\n", Files.readString(tempDir.resolve("method-references-header.csv")));
+        assertEquals("0,\"com.a.A::call(int, String)\"\n1,\"com.a.A::quote(\"\"x\"\")\"\n2,\"com.b.B::run()\"\n",
+            readGzip(tempDir.resolve("methods.csv.gz")));
+        assertEquals("0,2\n2,0\n2,1\n", readGzip(tempDir.resolve("method-references.csv.gz")));
+
+        assertEquals("id:ID(Class),name\n", Files.readString(tempDir.resolve("classes-header.csv")));
+        assertEquals("0,\"com.a.A\"\n1,\"com.b.B\"\n", readGzip(tempDir.resolve("classes.csv.gz")));
+        assertEquals("1,0\n", readGzip(tempDir.resolve("class-references.csv.gz")));
+    }
+
+    @Test
+    public void testOutputDoesNotDependOnInsertionOrder() throws IOException {
+        Path first = tempDir.resolve("first");
+        Path second = tempDir.resolve("second");
+        ReferenceGraph empty = new ReferenceGraph.Builder().build();
+        new Neo4jImportWriter(first).write(new ReferenceGraph.Builder()
+            .addEdge("X::x()", "Y::y()").addEdge("Z::z()", "X::x()").addEdge("Z::z()", "Y::y()").build(), empty);
+        new Neo4jImportWriter(second).write(new ReferenceGraph.Builder()
+            .addEdge("Z::z()", "Y::y()").addEdge("Z::z()", "X::x()").addEdge("X::x()", "Y::y()").build(), empty);
+
+        assertEquals(readGzip(first.resolve("methods.csv.gz")), readGzip(second.resolve("methods.csv.gz")));
+        assertEquals(readGzip(first.resolve("method-references.csv.gz")), readGzip(second.resolve("method-references.csv.gz")));
+    }
+
+    @Test
+    public void testAnalyzedCallsPointAtDeclaredMethods() throws Exception {
+        MethodReferenceAnalyzer.clearResults();
+        MethodReferenceAnalyzer methodAnalyzer = new MethodReferenceAnalyzer();
+        ClassReferenceAnalyzer classAnalyzer = new ClassReferenceAnalyzer();
+        ReferenceAnalyzerMain.analyzeProject(ReferenceGraphTest.writeCallChainProject(tempDir.resolve("project")).toString(),
+            methodAnalyzer, classAnalyzer);
+        Path importDir = tempDir.resolve("import");
+        new Neo4jImportWriter(importDir).write(methodAnalyzer.buildReferenceGraph(), classAnalyzer.buildReferenceGraph());
+
+        // Callers and callees share one identifier format, the one Neo4jReferenceWriter matches on
+        assertEquals("0,\"com.acme.A::a()\"\n1,\"com.acme.B::B(String)\"\n2,\"com.acme.B::b(int)\"\n3,\"com.acme.C::c()\"\n",
+            readGzip(importDir.resolve("methods.csv.gz")));
+        assertEquals("0,1\n0,2\n1,3\n2,3\n", readGzip(importDir.resolve("method-references.csv.gz")));
+    }
+
+    private static String readGzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapReferenceTableTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testConcurrentAppendsAcrossSegments() throws Exception {
+        int threads = 4;
+        int perThread = 100_000;
+        try (OffHeapReferenceTable table = OffHeapReferenceTable.direct()) {
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int writer = t;
+                writers.add(new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        // Every column is derived from the target, so a torn record shows up in the scan
+                        int target = writer * perThread + i;
+                        table.add(target, target + 1, target + 2, writer, -target);
+                    }
+                }));
+            }
+            writers.forEach(Thread::start);
+            for (Thread writer : writers) {
+                writer.join();
+            }
+
+            assertEquals(threads * perThread, table.size());
+            boolean[] seen = new boolean[threads * perThread];
+            for (int record = 0; record < table.size(); record++) {
+                int target = table.getTarget(record);
+                assertFalse(seen[target]);
+                seen[target] = true;
+                assertEquals(target + 1, table.getFile(record));
+                assertEquals(target + 2, table.getLine(record));
+                assertEquals(target / perThread, table.getKind(record));
+                assertEquals(-target, table.getSource(record));
+            }
+            assertTrue(table.getAllocatedBytes() >= (long) threads * perThread * OffHeapReferenceTable.RECORD_BYTES);
+        }
+    }
+
+    @Test
+    public void testMappedTableDeletesItsFile() throws Exception {
+        Path file = tempDir.resolve("method-references.refs");
+        OffHeapReferenceTable table = OffHeapReferenceTable.mapped(file);
+        assertEquals(0, table.add(7, 8, 9, 10));
+        assertEquals(1, table.add(11, 12, 13, 14, 15));
+        assertEquals(-1, table.getSource(0));
+        assertEquals(13, table.getLine(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getTarget(2));
+        assertTrue(Files.exists(file));
+
+        table.close();
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void testOptionsSelectTable() throws Exception {
+        try (ReferenceTable heap = ReferenceTable.create(AnalyzerOptions.parse(new String[] {"project"}, 1), "refs");
+             ReferenceTable direct = ReferenceTable.create(AnalyzerOptions.parse(new String[] {"project", "--off-heap"}, 1), "refs")) {
+            assertTrue(heap instanceof HeapReferenceTable);
+            assertTrue(direct instanceof OffHeapReferenceTable);
+        }
+
+        Path directory = tempDir.resolve("tables");
+        AnalyzerOptions options = AnalyzerOptions.parse(new String[] {"project", "--off-heap-dir", directory.toString()}, 1);
+        assertTrue(options.isOffHeap());
+        try (ReferenceTable mapped = ReferenceTable.create(options, "class-references")) {
+            mapped.add(1, 2, 3, 4);
+            assertTrue(Files.exists(directory.resolve("class-references.refs")));
+        }
+    }
+
+    @Test
+    public void testClassReferencesOffHeap() {
+        try (ReferenceTable table = OffHeapReferenceTable.direct()) {
+            ClassReferenceAnalyzer analyzer = new ClassReferenceAnalyzer(table);
+            Path file = Paths.get("src", "A.java");
+            analyzer.addClassReference("java.util.List", file, 3, "Field Type");
+            analyzer.addClassDefinition("com.example.B", Paths.get("src", "B.java"), 1);
+            analyzer.addClassReference("com.example.B", file, 4, "Object Creation");
+
+            assertEquals(2, analyzer.getClassReferenceCount());
+            assertTrue(analyzer.getClassReferences().get(0).classDefinition.isExternal);
+            assertEquals("com.example.B", analyzer.getClassReferences().get(1).classDefinition.qualifiedName);
+            assertEquals(4, analyzer.getClassReferences().get(1).lineNumber);
+            assertEquals(-1, table.getSource(1), "Class references have no source member");
+
+            // Definitions are found whatever the order in which the files were analyzed
+            analyzer.addClassReference("com.example.C", file, 5, "Field Type");
+            analyzer.addClassDefinition("com.example.C", Paths.get("src", "C.java"), 1);
+            assertFalse(analyzer.getClassReferences().get(2).classDefinition.isExternal);
+        }
+    }
+}
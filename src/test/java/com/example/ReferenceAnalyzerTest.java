@@ -1,8 +1,12 @@
 package com.example;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import java.io.IOException;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,6 +16,9 @@ import static org.junit.jupiter.api.Assertions.*;
 public class ReferenceAnalyzerTest {
     private static final Logger logger = LoggerFactory.getLogger(ReferenceAnalyzerTest.class);
 
+    @TempDir
+    Path tempDir;
+
     @Test
     public void testAnalyzeTestProject() throws IOException, XmlPullParserException {
         // Initialize analyzers
@@ -37,4 +44,71 @@ public class ReferenceAnalyzerTest {
         
         logger.info("Analysis complete. Results written to method-references.txt and class-references.txt");
     }
-} 
\ No newline at end of file
+
+    // The single-pass visitor records method references and class references each in the post-order
+    // the former separate method and class passes produced
+    @Test
+    public void testSinglePassKeepsReferenceOrder() throws IOException, XmlPullParserException {
+        Path sources = Files.createDirectories(tempDir.resolve("src/main/java/com/acme"));
+        Files.writeString(tempDir.resolve("pom.xml"), "<project><modelVersion>4.0.0</modelVersion><groupId>com.acme</groupId>"
+            + "<artifactId>order</artifactId><version>1</version></project>");
+        Files.writeString(sources.resolve("Item.java"), String.join("\n",
+            "package com.acme;",
+            "",
+            "public class Item {",
+            "    public Item(String name) {",
+            "    }",
+            "",
+            "    public static Item of(String name) {",
+            "        return new Item(name);",
+            "    }",
+            "",
+            "    public int size() {",
+            "        return 1;",
+            "    }",
+            "}",
+            ""));
+        Files.writeString(sources.resolve("Order.java"), String.join("\n",
+            "package com.acme;",
+            "",
+            "public class Order<T extends Item> {",
+            "    private Item item = Item.of(\"a\");",
+            "",
+            "    Order(String name) {",
+            "        item = new Item(name);",
+            "    }",
+            "",
+            "    int total(Item other, T extra) {",
+            "        return item.size() + other.size();",
+            "    }",
+            "}",
+            ""));
+
+        List<String> methodReferences = new ArrayList<>();
+        List<String> classReferences = new ArrayList<>();
+        ReferenceAnalyzerMain.analyzeProject(tempDir.toString(), references -> {
+            if (!references.getFilePath().endsWith("Order.java")) {
+                return;
+            }
+            for (FileReferences.Entry entry : references.getEntries()) {
+                String formatted = entry.kind + " " + entry.name + " " + entry.lineNumber
+                    + (entry.type != null ? " " + entry.type : "") + (entry.source != null ? " from " + entry.source : "");
+                boolean classKind = entry.kind == FileReferences.Kind.CLASS_DEFINITION || entry.kind == FileReferences.Kind.CLASS_REFERENCE;
+                (classKind ? classReferences : methodReferences).add(formatted);
+            }
+        }, new AnalyzerOptions());
+
+        assertEquals(List.of(
+            "METHOD_CALL com.acme.Item::of(String) 4 from com.acme.Order::<init>()",
+            "METHOD_REFERENCE com.acme.Item::Item(String) 7 Constructor Call from com.acme.Order::Order(String)",
+            "METHOD_CALL com.acme.Item::size() 11 from com.acme.Order::total(Item, T)",
+            "METHOD_CALL com.acme.Item::size() 11 from com.acme.Order::total(Item, T)"), methodReferences);
+        assertEquals(List.of(
+            "CLASS_REFERENCE com.acme.Item 4 Field Type",
+            "CLASS_REFERENCE com.acme.Item 7 Object Creation",
+            "CLASS_REFERENCE com.acme.Item 10 Parameter Type",
+            "CLASS_REFERENCE T 10 Parameter Type",
+            "CLASS_DEFINITION com.acme.Order 3",
+            "CLASS_REFERENCE com.acme.Item 3 Type Parameter Bound"), classReferences);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReferenceGraphTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testCallersCalleesAndTransitiveClosure() {
+        ReferenceGraph graph = new ReferenceGraph.Builder()
+            .addEdge("A::a()", "B::b()")
+            .addEdge("A::a()", "C::c()")
+            .addEdge("A::a()", "B::b()")
+            .addEdge("B::b()", "D::d()")
+            .addEdge("C::c()", "D::d()")
+            .addEdge("D::d()", "A::a()")
+            .build();
+
+        assertEquals(4, graph.getNodeCount());
+        assertEquals(5, graph.getEdgeCount(), "Duplicate edges are merged");
+        assertEquals(List.of("B::b()", "C::c()"), graph.calleesOf("A::a()"));
+        assertEquals(List.of("B::b()", "C::c()"), graph.callersOf("D::d()"));
+        assertEquals(List.of(), graph.callersOf("Missing::m()"));
+
+        assertEquals(List.of("B::b()", "C::c()"), graph.transitiveCallees("A::a()", 1));
+        assertEquals(List.of("B::b()", "C::c()", "D::d()"), graph.transitiveCallees("A::a()", 5), "The cycle back to A stops");
+        assertEquals(List.of("B::b()", "C::c()", "A::a()"), graph.transitiveCallers("D::d()", 2));
+    }
+
+    @Test
+    public void testCallChainFromAnalyzedSources() throws Exception {
+        MethodReferenceAnalyzer.clearResults();
+        MethodReferenceAnalyzer methodAnalyzer = new MethodReferenceAnalyzer();
+        ReferenceAnalyzerMain.analyzeProject(writeCallChainProject(tempDir).toString(), methodAnalyzer, new ClassReferenceAnalyzer());
+
+        // Targets use the same identifiers as the members they are called from, so calls chain
+        ReferenceGraph graph = methodAnalyzer.buildReferenceGraph();
+        assertEquals(List.of("com.acme.C::c()"), graph.calleesOf("com.acme.B::b(int)"));
+        assertEquals(Set.of("com.acme.B::B(String)", "com.acme.B::b(int)"), Set.copyOf(graph.callersOf("com.acme.C::c()")));
+        assertEquals(Set.of("com.acme.B::B(String)", "com.acme.B::b(int)", "com.acme.A::a()"),
+            Set.copyOf(graph.transitiveCallers("com.acme.C::c()", 2)));
+        assertTrue(graph.transitiveCallees("com.acme.A::a()", 2).contains("com.acme.C::c()"));
+    }
+
+    @Test
+    public void testUnresolvedConstructorCallsAreRecordedByClassName() throws Exception {
+        Path sources = Files.createDirectories(tempDir.resolve("src/main/java/com/acme"));
+        Files.writeString(tempDir.resolve("pom.xml"), "<project><modelVersion>4.0.0</modelVersion><groupId>com.acme</groupId>"
+            + "<artifactId>missing</artifactId><version>1</version></project>");
+        Files.writeString(sources.resolve("A.java"),
+            "package com.acme;\n\nimport com.other.Widget;\n\npublic class A {\n    void a() {\n        new Widget(1);\n    }\n}\n");
+
+        MethodReferenceAnalyzer.clearResults();
+        MethodReferenceAnalyzer methodAnalyzer = new MethodReferenceAnalyzer();
+        ReferenceAnalyzerMain.analyzeProject(tempDir.toString(), methodAnalyzer, new ClassReferenceAnalyzer());
+
+        // Widget is not on the classpath, so the name is qualified through the import
+        ReferenceGraph graph = methodAnalyzer.buildReferenceGraph();
+        assertEquals(List.of("com.acme.A::a()"), graph.callersOf("com.other.Widget::Widget()"));
+    }
+
+    // A single-module project in which A::a() creates a B and calls B::b(int), and both of those call C::c()
+    static Path writeCallChainProject(Path directory) throws IOException {
+        Path sources = Files.createDirectories(directory.resolve("src/main/java/com/acme"));
+        Files.writeString(directory.resolve("pom.xml"), "<project><modelVersion>4.0.0</modelVersion><groupId>com.acme</groupId>"
+            + "<artifactId>chain</artifactId><version>1</version></project>");
+        Files.writeString(sources.resolve("A.java"),
+            "package com.acme;\n\npublic class A {\n    void a() {\n        new B(\"x\").b(1);\n    }\n}\n");
+        Files.writeString(sources.resolve("B.java"),
+            "package com.acme;\n\npublic class B {\n    B(String name) {\n        C.c();\n    }\n\n"
+                + "    void b(int count) {\n        C.c();\n    }\n}\n");
+        Files.writeString(sources.resolve("C.java"), "package com.acme;\n\npublic class C {\n    static void c() {\n    }\n}\n");
+        return directory;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReferenceIndexTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testQueriesByTargetFileAndKind() throws Exception {
+        ReferenceIndexWriter writer = new ReferenceIndexWriter();
+        writer.add("com.example.B::run()", "src/A.java", 12, "Method Call");
+        writer.add("com.example.B::run()", "src/C.java", 3, "Method Call");
+        writer.add("com.example.B", "src/A.java", 5, "Field Type");
+        writer.add("java.lang.String", "src/A.java", 7, "Parameter Type");
+        Path indexFile = tempDir.resolve("references.idx");
+        writer.write(indexFile);
+
+        try (ReferenceIndex index = ReferenceIndex.open(indexFile)) {
+            assertEquals(4, index.size());
+
+            List<ReferenceIndex.Reference> callers = index.referencesTo("com.example.B::run()");
+            assertEquals(2, callers.size());
+            assertEquals("src/A.java", callers.get(0).getFile());
+            assertEquals(12, callers.get(0).getLineNumber());
+            assertEquals("src/C.java", callers.get(1).getFile());
+
+            List<ReferenceIndex.Reference> fromA = index.referencesFrom("src/A.java");
+            assertEquals(3, fromA.size());
+            assertEquals(5, fromA.get(0).getLineNumber());
+            assertEquals(7, fromA.get(1).getLineNumber());
+            assertEquals(12, fromA.get(2).getLineNumber());
+
+            List<ReferenceIndex.Reference> fieldTypes = index.referencesOfKind("Field Type");
+            assertEquals(1, fieldTypes.size());
+            assertEquals("com.example.B", fieldTypes.get(0).getTarget());
+
+            assertTrue(index.referencesTo("com.example.Missing").isEmpty());
+        }
+    }
+}
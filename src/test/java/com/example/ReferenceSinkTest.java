@@ -0,0 +1,62 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReferenceSinkTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testFanOutFeedsEverySinkFromOneReplay() throws Exception {
+        Path file = tempDir.resolve("A.java");
+        FileReferences references = new FileReferences(file);
+        references.addClassDefinition("com.example.A", 3);
+        references.addMethodCall("java.lang.String::trim()", 5, "com.example.A::run()");
+        references.addConstructorReference("B", 6, null);
+        references.addClassReference("B", 6, "Object Creation");
+
+        Path jsonLines = tempDir.resolve("references.jsonl");
+        MethodReferenceAnalyzer methodAnalyzer = new MethodReferenceAnalyzer();
+        ClassReferenceAnalyzer classAnalyzer = new ClassReferenceAnalyzer();
+        StreamingResultWriter textWriter = new StreamingResultWriter(tempDir.resolve("method-references.txt"), null);
+        List<String> files = new ArrayList<>();
+        ReferenceSink fileRecorder = new ReferenceSink() {
+            @Override
+            public void beginFile(Path filePath, boolean reused) {
+                files.add(filePath + (reused ? " (reused)" : ""));
+            }
+
+            @Override
+            public void methodReference(String reference, Path filePath, int lineNumber, String type, String source) {
+            }
+        };
+
+        MethodReferenceAnalyzer.clearResults();
+        try (ReferenceSink sink = ReferenceSink.fanOut(List.of(new AnalyzerReferenceSink(methodAnalyzer, classAnalyzer),
+                new JsonLinesReferenceSink(jsonLines), textWriter, fileRecorder))) {
+            references.replay(sink);
+        }
+
+        assertEquals(2, methodAnalyzer.getMethodReferenceCount());
+        assertEquals(1, classAnalyzer.getClassReferenceCount());
+        assertEquals(2, textWriter.getMethodReferenceCount());
+        assertEquals(List.of(file.toString()), files);
+
+        List<String> lines = Files.readAllLines(jsonLines);
+        assertEquals(4, lines.size());
+        assertEquals("{\"event\":\"classDefinition\",\"class\":\"com.example.A\",\"file\":\"" + file + "\",\"line\":3}", lines.get(0));
+        assertEquals("{\"event\":\"methodReference\",\"reference\":\"java.lang.String::trim()\",\"file\":\"" + file
+            + "\",\"line\":5,\"type\":\"Method Call\",\"source\":\"com.example.A::run()\"}", lines.get(1));
+        assertTrue(lines.get(2).contains("\"reference\":\"B::B()\",") && lines.get(2).contains("\"type\":\"Constructor Call\"}"));
+        assertTrue(lines.get(3).startsWith("{\"event\":\"classReference\",\"class\":\"B\""));
+        MethodReferenceAnalyzer.clearResults();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResolutionCacheTest {
+    private static final String SOURCE =
+        "class Sample {\n" +
+        "    void run(StringBuilder builder) {\n" +
+        "        builder.append(\"a\");\n" +
+        "        builder.append(\"b\");\n" +
+        "        builder.append(1);\n" +
+        "    }\n" +
+        "}\n";
+
+    @Test
+    public void testRepeatedCallShapesAreResolvedOnce() {
+        CompilationUnit cu = new JavaParser().parse(SOURCE).getResult().get();
+        JavaParserFacade symbolSolver = JavaParserFacade.get(new ReflectionTypeSolver());
+        ResolutionCache cache = new ResolutionCache(16);
+
+        List<MethodCallExpr> calls = cu.findAll(MethodCallExpr.class);
+        ResolutionCache.ResolvedTarget first = cache.resolve(calls.get(0), symbolSolver);
+        ResolutionCache.ResolvedTarget second = cache.resolve(calls.get(1), symbolSolver);
+        ResolutionCache.ResolvedTarget third = cache.resolve(calls.get(2), symbolSolver);
+
+        assertSame(first, second, "Identical call shapes should share one cache entry");
+        assertEquals("java.lang.StringBuilder::append(String)", first.getIdentifier());
+        assertEquals("java.lang.StringBuilder::append(int)", third.getIdentifier());
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testFullCacheEvictsOneEntryPerStore() {
+        CompilationUnit cu = new JavaParser().parse(SOURCE).getResult().get();
+        JavaParserFacade symbolSolver = JavaParserFacade.get(new ReflectionTypeSolver());
+        ResolutionCache cache = new ResolutionCache(1);
+
+        List<MethodCallExpr> calls = cu.findAll(MethodCallExpr.class);
+        cache.resolve(calls.get(0), symbolSolver);
+        cache.resolve(calls.get(2), symbolSolver);
+        cache.resolve(calls.get(1), symbolSolver);
+
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getEvictions(), "Each store into the full cache evicts the entry it replaces");
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void testTypeVariableScopesWithDifferentBoundsAreNotShared() {
+        CompilationUnit cu = new JavaParser().parse(
+            "class Foo { void run() { } }\n" +
+            "class Bar { void run() { } }\n" +
+            "class A<T extends Foo> { void call(T t) { t.run(); } }\n" +
+            "class B<T extends Bar> { void call(T t) { t.run(); } }\n").getResult().get();
+        JavaParserFacade symbolSolver = JavaParserFacade.get(new ReflectionTypeSolver());
+        ResolutionCache cache = new ResolutionCache(16);
+
+        List<MethodCallExpr> calls = cu.findAll(MethodCallExpr.class);
+        assertEquals("Foo::run()", cache.resolve(calls.get(0), symbolSolver).getIdentifier());
+        assertEquals("Bar::run()", cache.resolve(calls.get(1), symbolSolver).getIdentifier());
+        assertEquals(0, cache.size(), "Calls on a type variable should not be cached");
+        assertEquals(2, cache.getUncacheable());
+    }
+}
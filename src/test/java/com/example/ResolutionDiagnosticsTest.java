@@ -0,0 +1,49 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.github.javaparser.resolution.MethodAmbiguityException;
+import com.github.javaparser.resolution.UnsolvedSymbolException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResolutionDiagnosticsTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testFailuresAreGroupedByCause() throws Exception {
+        ResolutionDiagnostics diagnostics = new ResolutionDiagnostics();
+        Path file = Paths.get("src", "A.java");
+        for (int line = 1; line <= 8; line++) {
+            diagnostics.record("Method Call", new RuntimeException(new UnsolvedSymbolException("com.acme.Client")),
+                file, line, "send");
+        }
+        diagnostics.record("Method Call", new UnsolvedSymbolException("client"), file, 20, "send");
+        diagnostics.record("Method Call", new MethodAmbiguityException("Ambiguous method call"), file, 21, "println");
+        diagnostics.record("Constructor Call", ResolutionDiagnostics.Cause.NO_MATCHING_DECLARATION, "B", file, 22, "B");
+
+        assertEquals(11, diagnostics.getFailureCount());
+        assertEquals(4, diagnostics.getGroupCount());
+
+        Path report = tempDir.resolve("unresolved.json");
+        diagnostics.writeReport(report);
+        String json = Files.readString(report);
+        assertTrue(json.contains("\"failures\": 11"));
+        String missingType = "{\"kind\": \"Method Call\", \"cause\": \"MISSING_TYPE\", \"symbol\": \"com.acme.Client\", \"count\": 8";
+        // The largest group comes first and keeps only the first samples
+        assertTrue(json.indexOf(missingType) < json.indexOf("UNKNOWN_SCOPE_TYPE"));
+        assertTrue(json.contains("A.java:5 send\"]}"));
+        assertFalse(json.contains("A.java:6 send"));
+        assertTrue(json.contains("\"cause\": \"AMBIGUOUS_OVERLOAD\", \"symbol\": \"println\""));
+        assertTrue(json.contains("\"cause\": \"NO_MATCHING_DECLARATION\", \"symbol\": \"B\""));
+
+        diagnostics.reset();
+        assertEquals(0, diagnostics.getFailureCount());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingResultWriterTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testReferencesAreWrittenPerFileWithSummaryTrailer() throws Exception {
+        Path methodOutput = tempDir.resolve("method-references.txt");
+        Path classOutput = tempDir.resolve("class-references.txt");
+
+        FileReferences first = new FileReferences(tempDir.resolve("A.java"));
+        first.addClassDefinition("com.example.A", 3);
+        first.addMethodReference("java.lang.StringBuilder.append", 5);
+        first.addClassReference("A", 7, "Field Type");
+        FileReferences second = new FileReferences(tempDir.resolve("B.java"));
+        second.addConstructorReference("A", 4, null);
+        second.addClassReference("com.example.A", 4, "Object Creation");
+
+        try (StreamingResultWriter writer = new StreamingResultWriter(methodOutput, classOutput)) {
+            writer.write(first);
+            writer.write(second);
+            assertEquals(2, writer.getMethodReferenceCount());
+            assertEquals(2, writer.getClassReferenceCount());
+        }
+
+        String methods = Files.readString(methodOutput);
+        assertTrue(methods.contains("Reference: java.lang.StringBuilder.append"));
+        assertTrue(methods.contains("Reference: A::A()"));
+        assertTrue(methods.contains("Total method references found: 2"));
+
+        String classes = Files.readString(classOutput);
+        assertTrue(classes.contains("Definition: com.example.A (defined in " + tempDir.resolve("A.java") + ":3)"));
+        assertTrue(classes.contains("Object Creation References: 1"));
+        assertTrue(classes.indexOf("Total class references found: 2") > classes.indexOf("Reference: com.example.A"));
+    }
+}
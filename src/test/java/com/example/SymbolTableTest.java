@@ -0,0 +1,20 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SymbolTableTest {
+    @Test
+    public void testIdsAreStableAcrossGrowth() {
+        SymbolTable symbols = new SymbolTable();
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, symbols.intern("com.example.Type" + i + "::run()"));
+        }
+        assertEquals(10_000, symbols.size());
+        assertEquals(42, symbols.intern("com.example.Type42::run()"));
+        assertEquals(9_999, symbols.find("com.example.Type9999::run()"));
+        assertEquals("com.example.Type7::run()", symbols.get(7));
+        assertEquals(-1, symbols.find("com.example.Missing"));
+    }
+}
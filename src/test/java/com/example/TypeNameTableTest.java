@@ -0,0 +1,93 @@
+package com.example;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.type.Type;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TypeNameTableTest {
+    @Test
+    public void testNamesResolveByImportPrecedence() {
+        CompilationUnit cu = StaticJavaParser.parse(
+            "package com.example.service;\n"
+            + "import java.util.*;\n"
+            + "import java.awt.*;\n"
+            + "import com.example.model.Order;\n"
+            + "import com.example.util.*;\n"
+            + "public class OrderService {}\n");
+        Set<String> projectTypes = Set.of("com.example.model.Order", "com.example.service.Customer", "com.example.util.Strings");
+        Predicate<String> knownTypes = name -> projectTypes.contains(name) || TypeNameTable.isJdkType(name);
+        TypeNameTable table = new TypeNameTable(cu, knownTypes);
+
+        assertEquals("com.example.model.Order", table.resolve("Order"));
+        assertEquals("com.example.service.Customer", table.resolve("Customer"));
+        assertEquals("com.example.util.Strings", table.resolve("Strings"));
+        assertEquals("java.lang.String", table.resolve("String"));
+        assertEquals("java.util.Map", table.resolve("Map"));
+        assertEquals("java.util.Map.Entry", table.qualify("Map.Entry"));
+        assertEquals("java.util.concurrent.Future", table.qualify("java.util.concurrent.Future"));
+        // java.util.List and java.awt.List are both imported on demand
+        assertNull(table.resolve("List"));
+        assertNull(table.resolve("Unknown"));
+    }
+
+    @Test
+    public void testTypeVariablesAndMemberTypesOnlyApplyInTheirDeclarations() {
+        CompilationUnit cu = StaticJavaParser.parse(
+            "package com.example.service;\n"
+            + "public class OrderService<T> {\n"
+            + "    static class Result {}\n"
+            + "    Result last;\n"
+            + "    T value;\n"
+            + "}\n"
+            + "class Report {\n"
+            + "    T total;\n"
+            + "    Result result;\n"
+            + "}\n");
+        Set<String> projectTypes = Set.of("com.example.service.T");
+        TypeNameTable table = new TypeNameTable(cu, projectTypes::contains);
+        List<FieldDeclaration> fields = cu.findAll(FieldDeclaration.class);
+        Type last = fields.get(0).getElementType();
+        Type value = fields.get(1).getElementType();
+        Type total = fields.get(2).getElementType();
+        Type result = fields.get(3).getElementType();
+
+        assertEquals("com.example.service.OrderService.Result", table.resolve(last, "Result"));
+        assertNull(table.resolve(value, "T"));
+        assertTrue(table.isTypeParameter(value, "T"));
+        // Outside OrderService, T is the type of the same package and Result is not in scope
+        assertEquals("com.example.service.T", table.resolve(total, "T"));
+        assertFalse(table.isTypeParameter(total, "T"));
+        assertNull(table.resolve(result, "Result"));
+    }
+
+    @Test
+    public void testProjectTypesFromFilePaths() {
+        Path root = Paths.get("src", "main", "java");
+        Set<String> types = TypeNameTable.projectTypes(root, List.of(
+            root.resolve(Paths.get("com", "example", "A.java")),
+            root.resolve(Paths.get("com", "example", "package-info.java")),
+            root.resolve("Top.java")));
+        assertEquals(Set.of("com.example.A", "Top"), types);
+    }
+
+    @Test
+    public void testUnresolvedNamesAreNotPrefixedWithJavaLang() {
+        assertEquals("T", ClassReferenceAnalyzer.qualifiedReference("T"));
+        assertEquals("Helper", ClassReferenceAnalyzer.qualifiedReference("Helper"));
+        assertEquals("com.example.Helper", ClassReferenceAnalyzer.qualifiedReference("com.example.Helper"));
+        assertEquals("java.lang.Override", ClassReferenceAnalyzer.qualifiedReference("Override"));
+        assertTrue(ClassReferenceAnalyzer.formatClassReference("Field Type", "T", "src/A.java:3", "Not found in project")
+            .contains("Reference: T\n"));
+    }
+}